@@ -8,11 +8,15 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingCartRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.List;
 import java.util.Map;
 
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -39,11 +43,46 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> getBookingsAfter(long userId, BookingState state, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "after", after,
+                "size", size
+        );
+        return get("?state={state}&after={after}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getOwnerBookings(long ownerId, BookingState state, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "from", from,
+                "size", size
+        );
+        return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
+    }
+
+    public ResponseEntity<Object> getOwnerBookingsAfter(long ownerId, BookingState state, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "after", after,
+                "size", size
+        );
+        return get("/owner?state={state}&after={after}&size={size}", ownerId, parameters);
+    }
+
+
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(long ownerId) {
+        return getStream("/owner/export", ownerId, Map.of());
+    }
 
     public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<Object> bookItems(long userId, BookingCartRequestDto requestDto) {
+        return post("/cart", userId, requestDto);
+    }
+
     public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
@@ -54,4 +93,8 @@ public class BookingClient extends BaseClient {
         );
         return patchWithoutBody("/" + bookingId + "?approved={approved}", ownerId, parameters);
     }
+
+    public ResponseEntity<Object> approveBookings(long ownerId, List<BookingDecisionDto> decisions) {
+        return patch("/batch", ownerId, decisions);
+    }
 }
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking;
 
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
@@ -21,8 +24,12 @@ import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingCartRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import java.util.List;
+
 import static ru.practicum.shareit.common.CommonConstants.X_SHARER_USER_ID;
 
 
@@ -46,6 +53,45 @@ public class BookingController {
         return bookingClient.getBookings(userId, state, from, size);
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<Object> getBookingsAfter(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                                   @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                   @RequestParam String after,
+                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Get booking with state {}, userId={}, after={}, size={}", stateParam, userId, after, size);
+        return bookingClient.getBookingsAfter(userId, state, after, size);
+    }
+
+    @GetMapping("/owner")
+    public ResponseEntity<Object> getOwnerBookings(@RequestHeader(X_SHARER_USER_ID) long ownerId,
+                                                   @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Get owner booking with state {}, ownerId={}, from={}, size={}", stateParam, ownerId, from, size);
+        return bookingClient.getOwnerBookings(ownerId, state, from, size);
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(@RequestHeader(X_SHARER_USER_ID) long ownerId) {
+        log.info("Export owner bookings, ownerId={}", ownerId);
+        return bookingClient.exportOwnerBookings(ownerId);
+    }
+
+    @GetMapping(path = "/owner", params = "after")
+    public ResponseEntity<Object> getOwnerBookingsAfter(@RequestHeader(X_SHARER_USER_ID) long ownerId,
+                                                        @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                        @RequestParam String after,
+                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Get owner booking with state {}, ownerId={}, after={}, size={}", stateParam, ownerId, after, size);
+        return bookingClient.getOwnerBookingsAfter(ownerId, state, after, size);
+    }
+
     @PostMapping
     public ResponseEntity<Object> bookItem(@RequestHeader(X_SHARER_USER_ID) long userId,
                                            @RequestBody @Valid BookItemRequestDto requestDto) {
@@ -53,6 +99,13 @@ public class BookingController {
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    @PostMapping("/cart")
+    public ResponseEntity<Object> bookItems(@RequestHeader(X_SHARER_USER_ID) long userId,
+                                            @RequestBody @Valid BookingCartRequestDto requestDto) {
+        log.info("Creating bookings for items {}, userId={}", requestDto.getItemIds(), userId);
+        return bookingClient.bookItems(userId, requestDto);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@RequestHeader(X_SHARER_USER_ID) long userId,
                                              @PathVariable Long bookingId) {
@@ -68,4 +121,11 @@ public class BookingController {
         return bookingClient.approveBooking(ownerId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> approveBookings(@RequestHeader(X_SHARER_USER_ID) long ownerId,
+                                                  @RequestBody @NotEmpty @Size(max = 1000) List<@Valid BookingDecisionDto> decisions) {
+        log.info("Updating {} bookings in batch, ownerId={}", decisions.size(), ownerId);
+        return bookingClient.approveBookings(ownerId, decisions);
+    }
+
 }
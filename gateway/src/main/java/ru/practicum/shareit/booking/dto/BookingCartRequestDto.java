@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.validation.StartBeforeEndDateValidator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@StartBeforeEndDateValidator
+public class BookingCartRequestDto {
+    @FutureOrPresent
+    LocalDateTime start;
+    @Future
+    LocalDateTime end;
+    @NotEmpty
+    @Size(max = 100)
+    List<@NotNull @Positive Long> itemIds;
+}
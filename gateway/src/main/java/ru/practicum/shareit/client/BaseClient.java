@@ -3,18 +3,35 @@ package ru.practicum.shareit.client;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import static ru.practicum.shareit.common.CommonConstants.X_SHARER_USER_ID;
 
 public class BaseClient {
+    static final List<String> STREAMED_RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_RANGE,
+            HttpHeaders.ACCEPT_RANGES, HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL, "X-Content-Type-Options");
+
     protected final RestTemplate rest;
 
     public BaseClient(RestTemplate rest) {
@@ -33,6 +50,71 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<StreamingResponseBody> getStream(String path, Long userId, Map<String, Object> parameters) {
+        return getStream(path, userId, parameters, new HttpHeaders());
+    }
+
+    /**
+     * Copies the server's response body to the client as it arrives, never holding it whole; {@code forwardedHeaders}
+     * replace the default request headers, and the headers that describe the body come back with it. The server's
+     * response is closed once the body is copied, at once when there is none to copy, and in any case when the
+     * asynchronous request ends, so that a timeout or a client gone before the copy started does not leak it.
+     */
+    protected ResponseEntity<StreamingResponseBody> getStream(String path, Long userId, Map<String, Object> parameters,
+                                                              HttpHeaders forwardedHeaders) {
+        URI uri = rest.getUriTemplateHandler().expand(path, parameters);
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().addAll(defaultHeaders(userId));
+            request.getHeaders().putAll(forwardedHeaders);
+            ClientHttpResponse response = request.execute();
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(response.getHeaders().getContentType());
+            STREAMED_RESPONSE_HEADERS.stream()
+                    .filter(response.getHeaders()::containsKey)
+                    .forEach(name -> headers.put(name, response.getHeaders().get(name)));
+            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)
+                    || response.getStatusCode().isSameCodeAs(HttpStatus.NO_CONTENT)) {
+                response.close();
+                return ResponseEntity.status(response.getStatusCode()).headers(headers).build();
+            }
+            closeOnAsyncCompletion(response);
+            return ResponseEntity.status(response.getStatusCode()).headers(headers).body(outputStream -> {
+                try (response) {
+                    response.getBody().transferTo(outputStream);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeOnAsyncCompletion(ClientHttpResponse response) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(attributes.getRequest()).registerCallableInterceptor(response,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        response.close();
+                    }
+                });
+    }
+
+    protected ClientHttpResponse postStream(String path, Long userId, MediaType contentType, StreamingHttpOutputMessage.Body body) {
+        URI uri = rest.getUriTemplateHandler().expand(path);
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.POST);
+            request.getHeaders().addAll(defaultHeaders(userId));
+            request.getHeaders().setContentType(contentType);
+            ((StreamingHttpOutputMessage) request).setBody(body);
+            return request.execute();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
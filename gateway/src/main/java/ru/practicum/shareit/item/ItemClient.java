@@ -1,41 +1,68 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemSort;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Service
 public class ItemClient extends BaseClient {
     static final String API_PREFIX = "/items";
+    static final List<String> PHOTO_REQUEST_HEADERS = List.of(HttpHeaders.RANGE, HttpHeaders.IF_RANGE, HttpHeaders.IF_NONE_MATCH);
+
+    final ItemImportReader itemImportReader;
+    final ObjectMapper objectMapper;
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ItemImportReader itemImportReader, ObjectMapper objectMapper) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
                         .build()
         );
+        this.itemImportReader = itemImportReader;
+        this.objectMapper = objectMapper;
     }
 
-    public ResponseEntity<Object> getAllItemsByOwnerId(long ownerId, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllItemsByOwnerId(long ownerId, Integer from, Integer size, ItemSort sort) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "size", size,
+                "sort", sort.name()
         );
-        return get("?from={from}&size={size}", ownerId, parameters);
+        return get("?from={from}&size={size}&sort={sort}", ownerId, parameters);
     }
 
 
@@ -43,19 +70,94 @@ public class ItemClient extends BaseClient {
         return get("/" + id);
     }
 
-    public ResponseEntity<Object> searchItems(String text, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> searchItems(String text, String near, Double radius, Integer from, Integer size, ItemSort sort) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
+                "radius", radius,
                 "from", from,
+                "size", size,
+                "sort", sort.name()
+        ));
+        if (near == null) {
+            return get("/search?text={text}&from={from}&size={size}&sort={sort}", null, parameters);
+        }
+        parameters.put("near", near);
+        return get("/search?text={text}&near={near}&radius={radius}&from={from}&size={size}&sort={sort}", null, parameters);
+    }
+
+    public ResponseEntity<Object> suggestItems(String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+        return get("/suggest?prefix={prefix}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportItems(long ownerId) {
+        return getStream("/export", ownerId, Map.of());
+    }
+
+    public ResponseEntity<StreamingResponseBody> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return getStream("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getPhotos(long itemId) {
+        return get("/" + itemId + "/photos");
+    }
+
+    public ResponseEntity<StreamingResponseBody> downloadPhoto(long itemId, String hash, HttpHeaders requestHeaders) {
+        HttpHeaders forwardedHeaders = new HttpHeaders();
+        forwardedHeaders.setAccept(requestHeaders.getAccept());
+        PHOTO_REQUEST_HEADERS.stream()
+                .filter(requestHeaders::containsKey)
+                .forEach(name -> forwardedHeaders.put(name, requestHeaders.get(name)));
+        return getStream("/" + itemId + "/photos/{hash}", null, Map.of("hash", hash), forwardedHeaders);
+    }
+
+    /**
+     * The photo bytes go from the request body straight into the request to the server.
+     */
+    public ResponseEntity<Object> uploadPhoto(long ownerId, long itemId, MediaType contentType, InputStream body) {
+        try (ClientHttpResponse response = postStream("/" + itemId + "/photos", ownerId, contentType, body::transferTo)) {
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                return ResponseEntity.status(response.getStatusCode()).body(response.getBody().readAllBytes());
+            }
+            return ResponseEntity.status(response.getStatusCode()).body(objectMapper.readValue(response.getBody(), Object.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     public ResponseEntity<Object> createItem(long ownerId, ItemRequestDto requestDto) {
         return post("", ownerId, requestDto);
     }
 
+    /**
+     * Streams the rows that pass validation to the server as NDJSON while the body is still being read, and merges
+     * the rows rejected here into the server's report.
+     */
+    public ResponseEntity<Object> importItems(long ownerId, MediaType contentType, InputStream body) {
+        List<ItemImportErrorDto> errors = new ArrayList<>();
+        StreamingHttpOutputMessage.Body rows = outputStream -> itemImportReader.read(contentType, body,
+                (row, itemRequestDto) -> writeRow(outputStream, row, itemRequestDto),
+                (row, error) -> errors.add(ItemImportErrorDto.builder().row(row).error(error).build()));
+        try (ClientHttpResponse response = postStream("/import", ownerId, MediaType.APPLICATION_NDJSON, rows)) {
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                return ResponseEntity.status(response.getStatusCode()).body(response.getBody().readAllBytes());
+            }
+            ItemImportResultDto result = objectMapper.readValue(response.getBody(), ItemImportResultDto.class);
+            errors.addAll(result.getErrors());
+            errors.sort(Comparator.comparing(ItemImportErrorDto::getRow));
+            return ResponseEntity.ok(ItemImportResultDto.builder().imported(result.getImported()).errors(errors).build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public ResponseEntity<Object> updateItem(long ownerId, long itemId, ItemRequestDto requestDto) {
         return patch("/" + itemId, ownerId, requestDto);
     }
@@ -63,4 +165,15 @@ public class ItemClient extends BaseClient {
     public ResponseEntity<Object> addComment(long authorId, long itemId, CommentRequestDto requestDto) {
         return post("/" + itemId + "/comment", authorId, requestDto);
     }
+
+    private void writeRow(OutputStream outputStream, Long row, ItemRequestDto itemRequestDto) {
+        ObjectNode node = objectMapper.valueToTree(itemRequestDto);
+        node.put("row", row);
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(node));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -8,7 +9,10 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,9 +25,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.common.Marker;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemSort;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static ru.practicum.shareit.common.CommonConstants.X_SHARER_USER_ID;
 
@@ -34,14 +45,27 @@ import static ru.practicum.shareit.common.CommonConstants.X_SHARER_USER_ID;
 @RestController
 @RequestMapping("/items")
 public class ItemController {
+    static final String IMAGE_WEBP_VALUE = "image/webp";
+    static final Pattern PHOTO_HASH = Pattern.compile("[0-9a-f]{64}");
+    static final Pattern COORDINATES = Pattern.compile("\\s*(-?\\d+(?:\\.\\d+)?)\\s*,\\s*(-?\\d+(?:\\.\\d+)?)\\s*");
+
     final ItemClient itemClient;
 
     @GetMapping
     public ResponseEntity<Object> findAllItemsByOwnerId(@RequestHeader(X_SHARER_USER_ID) Long ownerId,
                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Get all items of ownerId={}, from={}, size={}", ownerId, from, size);
-        return itemClient.getAllItemsByOwnerId(ownerId, from, size);
+                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                        @RequestParam(name = "sort", defaultValue = "default") String sortParam) {
+        ItemSort sort = ItemSort.from(sortParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown sort: " + sortParam));
+        log.info("Get all items of ownerId={}, from={}, size={}, sort={}", ownerId, from, size, sort);
+        return itemClient.getAllItemsByOwnerId(ownerId, from, size, sort);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestHeader(X_SHARER_USER_ID) Long ownerId) {
+        log.info("Export items of ownerId={}", ownerId);
+        return itemClient.exportItems(ownerId);
     }
 
     @GetMapping("/{id}")
@@ -51,11 +75,37 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestParam String text,
+    public ResponseEntity<Object> searchItems(@RequestParam(name = "text", defaultValue = "") String text,
+                                              @RequestParam(name = "near", required = false) String near,
+                                              @Positive @DecimalMax("100") @RequestParam(name = "radius", defaultValue = "5") Double radius,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Search items with text={}, from={}, size={}", text, from, size);
-        return itemClient.searchItems(text, from, size);
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(name = "sort", defaultValue = "default") String sortParam) {
+        ItemSort sort = ItemSort.from(sortParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown sort: " + sortParam));
+        if (near != null) {
+            checkCoordinates(near);
+        }
+        log.info("Search items with text={}, near={}, radius={}, from={}, size={}, sort={}", text, near, radius, from, size, sort);
+        return itemClient.searchItems(text, near, radius, from, size, sort);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestItems(@RequestParam String prefix,
+                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Suggest items with prefix={}, size={}", prefix, size);
+        return itemClient.suggestItems(prefix, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<StreamingResponseBody> getAvailability(@PathVariable @Min(1) Long itemId,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Period start must be before its end: from=" + from + ", to=" + to);
+        }
+        log.info("Get availability of itemId={}, from={}, to={}", itemId, from, to);
+        return itemClient.getAvailability(itemId, from, to);
     }
 
     @PostMapping
@@ -65,6 +115,40 @@ public class ItemController {
         return itemClient.createItem(userId, newItemRequestDto);
     }
 
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ItemImportReader.TEXT_CSV_VALUE})
+    public ResponseEntity<Object> importItems(@RequestHeader(X_SHARER_USER_ID) Long userId,
+                                              @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                              InputStream body) {
+        log.info("Importing items as {}, userId={}", contentType, userId);
+        return itemClient.importItems(userId, contentType, body);
+    }
+
+    @PostMapping(path = "/{itemId}/photos", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE,
+            MediaType.IMAGE_GIF_VALUE, IMAGE_WEBP_VALUE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public ResponseEntity<Object> uploadPhoto(@RequestHeader(X_SHARER_USER_ID) Long userId, @PathVariable @Min(1) Long itemId,
+                                              @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                              InputStream body) {
+        log.info("Uploading {} photo, itemId={}, userId={}", contentType, itemId, userId);
+        return itemClient.uploadPhoto(userId, itemId, contentType, body);
+    }
+
+    @GetMapping("/{itemId}/photos")
+    public ResponseEntity<Object> getPhotos(@PathVariable @Min(1) Long itemId) {
+        log.info("Get photos of itemId={}", itemId);
+        return itemClient.getPhotos(itemId);
+    }
+
+    @GetMapping("/{itemId}/photos/{hash}")
+    public ResponseEntity<StreamingResponseBody> downloadPhoto(@PathVariable @Min(1) Long itemId, @PathVariable String hash,
+                                                               @RequestHeader HttpHeaders requestHeaders) {
+        if (!PHOTO_HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Not a photo hash: " + hash);
+        }
+        log.info("Download photo {} of itemId={}, range={}", hash, itemId, requestHeaders.getFirst(HttpHeaders.RANGE));
+        return itemClient.downloadPhoto(itemId, hash, requestHeaders);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> update(@RequestHeader(X_SHARER_USER_ID) Long userId, @Validated({Marker.OnUpdate.class}) @RequestBody ItemRequestDto updItemRequestDto, @PathVariable @Min(1) Long itemId) {
         log.info("Updating itemId={} with {}, userId={}", itemId, updItemRequestDto, userId);
@@ -78,4 +162,12 @@ public class ItemController {
         return itemClient.addComment(userId, itemId, commentRequestDto);
     }
 
+    private static void checkCoordinates(String coordinates) {
+        Matcher matcher = COORDINATES.matcher(coordinates);
+        if (!matcher.matches() || Math.abs(Double.parseDouble(matcher.group(1))) > 90
+                || Math.abs(Double.parseDouble(matcher.group(2))) > 180) {
+            throw new IllegalArgumentException("Coordinates must be latitude,longitude: " + coordinates);
+        }
+    }
+
 }
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.Marker;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.validation.ItemValidation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Reads an item import body one row at a time, either NDJSON or CSV with a header line, and checks every row against
+ * the same rules as {@code POST /items}. Rows are numbered from 1, not counting blank lines or the CSV header.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Component
+@RequiredArgsConstructor
+public class ItemImportReader {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    static final String ROW_PARSE_ERROR = "Строка не разобрана: %s";
+    static final String NULL_ROW = "ожидался объект, а не null";
+    static final CsvMapper CSV_MAPPER = new CsvMapper();
+    static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema().withHeader();
+
+    final ObjectMapper objectMapper;
+    final Validator validator;
+
+    public void read(MediaType contentType, InputStream body,
+                     BiConsumer<Long, ItemRequestDto> onRow, BiConsumer<Long, String> onError) throws IOException {
+        if (MediaType.valueOf(TEXT_CSV_VALUE).includes(contentType)) {
+            readCsv(body, onRow, onError);
+        } else {
+            readNdjson(body, onRow, onError);
+        }
+    }
+
+    private void readNdjson(InputStream body, BiConsumer<Long, ItemRequestDto> onRow,
+                            BiConsumer<Long, String> onError) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long row = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            try {
+                ItemRequestDto itemRequestDto = objectMapper.readValue(line, ItemRequestDto.class);
+                if (itemRequestDto == null) {
+                    onError.accept(row, String.format(ROW_PARSE_ERROR, NULL_ROW));
+                    continue;
+                }
+                accept(row, itemRequestDto, onRow, onError);
+            } catch (JsonProcessingException e) {
+                onError.accept(row, String.format(ROW_PARSE_ERROR, e.getOriginalMessage()));
+            }
+        }
+    }
+
+    private void readCsv(InputStream body, BiConsumer<Long, ItemRequestDto> onRow,
+                         BiConsumer<Long, String> onError) throws IOException {
+        try (MappingIterator<Map<String, String>> rows = CSV_MAPPER.readerForMapOf(String.class).with(CSV_SCHEMA).readValues(body)) {
+            long row = 0;
+            while (true) {
+                row++;
+                Map<String, String> values;
+                try {
+                    if (!rows.hasNextValue()) {
+                        return;
+                    }
+                    values = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    // the CSV parser cannot resynchronise after a malformed line, so the rest of the body is dropped
+                    onError.accept(row, String.format(ROW_PARSE_ERROR, e.getOriginalMessage()));
+                    return;
+                }
+                values.values().removeIf(String::isEmpty);
+                try {
+                    accept(row, objectMapper.convertValue(values, ItemRequestDto.class), onRow, onError);
+                } catch (IllegalArgumentException e) {
+                    String message = e.getCause() instanceof JsonProcessingException cause ? cause.getOriginalMessage() : e.getMessage();
+                    onError.accept(row, String.format(ROW_PARSE_ERROR, message));
+                }
+            }
+        }
+    }
+
+    private void accept(long row, ItemRequestDto itemRequestDto, BiConsumer<Long, ItemRequestDto> onRow,
+                        BiConsumer<Long, String> onError) {
+        String error = validate(itemRequestDto);
+        if (error == null) {
+            onRow.accept(row, itemRequestDto);
+        } else {
+            onError.accept(row, error);
+        }
+    }
+
+    private String validate(ItemRequestDto itemRequestDto) {
+        Set<ConstraintViolation<ItemRequestDto>> violations = validator.validate(itemRequestDto, Marker.OnCreate.class);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            ItemValidation.validateBlank(itemRequestDto);
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+}
@@ -15,6 +15,7 @@ public class CommentDto {
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     final Long id;
     final String text;
+    final Integer rating;
     final String authorName;
     final LocalDateTime created;
 }
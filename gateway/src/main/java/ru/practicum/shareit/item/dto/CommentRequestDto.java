@@ -1,5 +1,7 @@
 package ru.practicum.shareit.item.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AccessLevel;
@@ -14,4 +16,7 @@ public class CommentRequestDto {
     @NotBlank
     @Size(min = 1, max = 1000)
     String text;
+    @Min(1)
+    @Max(5)
+    Integer rating;
 }
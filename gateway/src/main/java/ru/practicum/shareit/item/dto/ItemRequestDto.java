@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -29,4 +31,12 @@ public class ItemRequestDto {
     final Boolean available;
 
     final Long requestId;
+
+    @DecimalMin(value = "-90", groups = {Marker.OnCreate.class, Marker.OnUpdate.class})
+    @DecimalMax(value = "90", groups = {Marker.OnCreate.class, Marker.OnUpdate.class})
+    final Double latitude;
+
+    @DecimalMin(value = "-180", groups = {Marker.OnCreate.class, Marker.OnUpdate.class})
+    @DecimalMax(value = "180", groups = {Marker.OnCreate.class, Marker.OnUpdate.class})
+    final Double longitude;
 }
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import java.util.Optional;
+
+public enum ItemSort {
+	// По умолчанию: по id, при полнотекстовом поиске по релевантности
+	DEFAULT,
+	// По средней оценке
+	RATING,
+	// По числу отзывов
+	COMMENTS;
+
+	public static Optional<ItemSort> from(String stringSort) {
+		for (ItemSort sort : values()) {
+			if (sort.name().equalsIgnoreCase(stringSort)) {
+				return Optional.of(sort);
+			}
+		}
+		return Optional.empty();
+	}
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import ru.practicum.shareit.booking.dto.BookingCartRequestDto;
+
+import java.time.LocalDateTime;
+
+public class CheckCartDateValid implements ConstraintValidator<StartBeforeEndDateValidator, BookingCartRequestDto> {
+    @Override
+    public void initialize(StartBeforeEndDateValidator constraintAnnotation) {
+    }
+
+    @Override
+    public boolean isValid(BookingCartRequestDto bookingCartRequestDto, ConstraintValidatorContext constraintValidatorContext) {
+        LocalDateTime start = bookingCartRequestDto.getStart();
+        LocalDateTime end = bookingCartRequestDto.getEnd();
+        if (start == null || end == null) {
+            return false;
+        }
+        return start.isBefore(end);
+    }
+}
@@ -13,7 +13,7 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 @Target(ElementType.TYPE_USE)
 @Retention(RUNTIME)
 @Documented
-@Constraint(validatedBy = CheckDateValid.class)
+@Constraint(validatedBy = {CheckDateValid.class, CheckCartDateValid.class})
 public @interface StartBeforeEndDateValidator {
     String message() default "Start must be before end or not null";
 
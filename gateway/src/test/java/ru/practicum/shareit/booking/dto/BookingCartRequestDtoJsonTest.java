@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.boot.test.json.JacksonTester;
+import org.springframework.boot.test.json.JsonContent;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@JsonTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingCartRequestDtoJsonTest {
+    private final JacksonTester<BookingCartRequestDto> json;
+
+    @Test
+    public void testBookingCartRequestDto() throws Exception {
+        LocalDateTime start = LocalDateTime.now();
+        LocalDateTime end = LocalDateTime.now().plusDays(1);
+        BookingCartRequestDto bookingCartRequestDto = new BookingCartRequestDto(start, end, List.of(1L, 2L));
+
+        JsonContent<BookingCartRequestDto> jsonContent = json.write(bookingCartRequestDto);
+
+        assertThat(jsonContent).extractingJsonPathStringValue("$.start").isEqualTo(start.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        assertThat(jsonContent).extractingJsonPathStringValue("$.end").isEqualTo(end.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        assertThat(jsonContent).extractingJsonPathArrayValue("$.itemIds").containsExactly(1, 2);
+    }
+
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.boot.test.json.JacksonTester;
+import org.springframework.boot.test.json.JsonContent;
+
+import static org.assertj.core.api.Assertions.*;
+
+@JsonTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingDecisionDtoJsonTest {
+    private final JacksonTester<BookingDecisionDto> json;
+
+    @Test
+    public void testBookingDecisionDto() throws Exception {
+        BookingDecisionDto bookingDecisionDto = new BookingDecisionDto(1L, true);
+
+        JsonContent<BookingDecisionDto> jsonContent = json.write(bookingDecisionDto);
+
+        assertThat(jsonContent).extractingJsonPathNumberValue("$.bookingId").isEqualTo(1);
+        assertThat(jsonContent).extractingJsonPathBooleanValue("$.approved").isEqualTo(true);
+        assertThat(json.parse("{\"bookingId\":2,\"approved\":false}").getObject())
+                .extracting(BookingDecisionDto::getBookingId, BookingDecisionDto::getApproved)
+                .containsExactly(2L, false);
+    }
+
+}
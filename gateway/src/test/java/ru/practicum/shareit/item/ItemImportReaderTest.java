@@ -0,0 +1,109 @@
+package ru.practicum.shareit.item;
+
+import jakarta.validation.Validation;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemImportReaderTest {
+    static final MediaType NDJSON = MediaType.APPLICATION_NDJSON;
+    static final MediaType CSV = MediaType.valueOf(ItemImportReader.TEXT_CSV_VALUE);
+
+    final ItemImportReader reader = new ItemImportReader(Jackson2ObjectMapperBuilder.json().build(),
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    final Map<Long, ItemRequestDto> rows = new TreeMap<>();
+    final Map<Long, String> errors = new TreeMap<>();
+
+    @Test
+    void read_shouldNumberNdjsonRows_skippingBlankLines() {
+        read(NDJSON, """
+                {"name": "Drill", "description": "Cordless", "available": true}
+
+                {"name": "Saw", "description": "Hand saw", "available": false, "requestId": 7, "latitude": 55.75, "longitude": 37.62}
+                """);
+
+        assertThat(errors).isEmpty();
+        assertThat(rows).containsOnlyKeys(1L, 2L);
+        assertThat(rows.get(1L).getName()).isEqualTo("Drill");
+        assertThat(rows.get(1L).getAvailable()).isTrue();
+        assertThat(rows.get(2L).getRequestId()).isEqualTo(7L);
+        assertThat(rows.get(2L).getLongitude()).isEqualTo(37.62);
+    }
+
+    @Test
+    void read_shouldReportMalformedAndNullNdjsonRows_andGoOn() {
+        read(NDJSON, """
+                {"name": "Drill", "description": "Cordless", "available": true
+                null
+                {"name": "Saw", "description": "Hand saw", "available": "maybe"}
+                {"name": "Ladder", "description": "Three-step", "available": true}
+                """);
+
+        assertThat(rows).containsOnlyKeys(4L);
+        assertThat(errors).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(errors.values()).allSatisfy(error -> assertThat(error).startsWith("Строка не разобрана: "));
+        assertThat(errors.get(2L)).isEqualTo(String.format(ItemImportReader.ROW_PARSE_ERROR, ItemImportReader.NULL_ROW));
+    }
+
+    @Test
+    void read_shouldReportValidationErrorsPerRow() {
+        read(NDJSON, """
+                {"name": "Drill", "description": "Cordless"}
+                {"name": "Drill", "description": "Cordless", "available": true, "latitude": 91}
+                {"name": "Drill", "description": "Cordless", "available": true}
+                """);
+
+        assertThat(rows).containsOnlyKeys(3L);
+        assertThat(errors.get(1L)).startsWith("available: ");
+        assertThat(errors.get(2L)).startsWith("latitude: ");
+    }
+
+    @Test
+    void read_shouldMapCsvColumnsByHeader_treatingEmptyValuesAsAbsent() {
+        read(CSV, """
+                name,description,available,requestId,latitude,longitude
+                Drill,"Cordless, with case",true,,,
+                Saw,Hand saw,false,7,55.75,37.62
+                Ladder,,true,,,
+                Hammer,Claw,maybe,,,
+                """);
+
+        assertThat(rows).containsOnlyKeys(1L, 2L);
+        assertThat(rows.get(1L).getDescription()).isEqualTo("Cordless, with case");
+        assertThat(rows.get(1L).getRequestId()).isNull();
+        assertThat(rows.get(2L).getRequestId()).isEqualTo(7L);
+        assertThat(rows.get(2L).getLatitude()).isEqualTo(55.75);
+        assertThat(errors).containsOnlyKeys(3L, 4L);
+        assertThat(errors.get(3L)).startsWith("description: ");
+        assertThat(errors.get(4L)).startsWith("Строка не разобрана: ");
+    }
+
+    @Test
+    void read_shouldStopAtMalformedCsvLine() {
+        read(CSV, """
+                name,description,available
+                Drill,Cordless,true
+                Saw,Hand saw,false,extra
+                Ladder,Three-step,true
+                """);
+
+        assertThat(rows).containsOnlyKeys(1L);
+        assertThat(errors).containsOnlyKeys(2L);
+        assertThat(errors.get(2L)).startsWith("Строка не разобрана: ");
+    }
+
+    @SneakyThrows
+    private void read(MediaType contentType, String body) {
+        reader.read(contentType, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), rows::put, errors::put);
+    }
+}
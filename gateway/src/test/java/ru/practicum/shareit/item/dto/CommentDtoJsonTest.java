@@ -30,6 +30,7 @@ class CommentDtoJsonTest {
         CommentDto commentDto = CommentDto.builder()
                 .id(commentId)
                 .text(text)
+                .rating(4)
                 .authorName(author)
                 .created(createdBooking)
                 .build();
@@ -38,6 +39,7 @@ class CommentDtoJsonTest {
 
         assertThat(jsonContent).extractingJsonPathNumberValue("$.id").isEqualTo(expectedCommentId);
         assertThat(jsonContent).extractingJsonPathStringValue("$.text").isEqualTo(text);
+        assertThat(jsonContent).extractingJsonPathNumberValue("$.rating").isEqualTo(4);
         assertThat(jsonContent).extractingJsonPathStringValue("$.authorName").isEqualTo(author);
         assertThat(jsonContent).extractingJsonPathStringValue("$.created").isEqualTo(createdBooking.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
     }
@@ -1,9 +1,13 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,12 +18,20 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingCartDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.List;
 
 import static ru.practicum.shareit.common.CommonConstants.X_SHARER_USER_ID;
 
@@ -29,6 +41,7 @@ import static ru.practicum.shareit.common.CommonConstants.X_SHARER_USER_ID;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     final BookingService bookingService;
+    final ObjectMapper objectMapper;
 
     @GetMapping("/{bookingId}")
     public BookingDto findBookingById(@RequestHeader(X_SHARER_USER_ID) Long userId, @PathVariable Long bookingId) {
@@ -51,15 +64,63 @@ public class BookingController {
         return bookingService.findBookingsOwnerByState(ownerId, BookingState.valueOf(state), from, size);
     }
 
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportOwnerBookings(@RequestHeader(X_SHARER_USER_ID) Long ownerId) {
+        bookingService.checkOwnerExists(ownerId);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                bookingService.exportOwnerBookings(ownerId, booking -> writeLine(generator, booking));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(params = "after")
+    public BookingSliceDto findBookingsByStateAfter(@RequestHeader(X_SHARER_USER_ID) Long bookerId,
+                                                    @RequestParam(defaultValue = "ALL") String state,
+                                                    @RequestParam String after,
+                                                    @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return bookingService.findBookingsByStateAfter(bookerId, BookingState.valueOf(state), after, size);
+    }
+
+    @GetMapping(path = "/owner", params = "after")
+    public BookingSliceDto findBookingsOwnerByStateAfter(@RequestHeader(X_SHARER_USER_ID) Long ownerId,
+                                                         @RequestParam(defaultValue = "ALL") String state,
+                                                         @RequestParam String after,
+                                                         @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return bookingService.findBookingsOwnerByStateAfter(ownerId, BookingState.valueOf(state), after, size);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BookingDto create(@RequestHeader(X_SHARER_USER_ID) Long bookerId, @RequestBody BookingShortDto newBookingShortDto) {
         return bookingService.create(bookerId, newBookingShortDto);
     }
 
+    @PostMapping("/cart")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Collection<BookingDto> createAll(@RequestHeader(X_SHARER_USER_ID) Long bookerId, @RequestBody BookingCartDto bookingCartDto) {
+        return bookingService.createAll(bookerId, bookingCartDto);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto update(@RequestHeader(X_SHARER_USER_ID) Long ownerId, @PathVariable Long bookingId, @RequestParam Boolean approved) {
         return bookingService.update(ownerId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public Collection<BookingDecisionResultDto> updateAll(@RequestHeader(X_SHARER_USER_ID) Long ownerId,
+                                                          @RequestBody List<BookingDecisionDto> decisions) {
+        return bookingService.updateAll(ownerId, decisions);
+    }
+
+    private static void writeLine(JsonGenerator generator, BookingDto booking) {
+        try {
+            generator.writePOJO(booking);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
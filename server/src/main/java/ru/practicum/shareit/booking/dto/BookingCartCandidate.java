@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.item.model.Item;
+
+public interface BookingCartCandidate {
+    Item getItem();
+
+    Boolean getBooked();
+}
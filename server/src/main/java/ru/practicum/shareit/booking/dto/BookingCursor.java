@@ -0,0 +1,43 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+public class BookingCursor {
+    public static final BookingCursor FIRST = new BookingCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    static final String INVALID_CURSOR_MSG = "Некорректный курсор постраничного вывода: %s";
+    static final String SEPARATOR = ",";
+
+    final LocalDateTime start;
+    final Long id;
+
+    public static BookingCursor decode(String after) {
+        if (after == null || after.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new BadRequestException(String.format(INVALID_CURSOR_MSG, after));
+            }
+            return new BookingCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException(String.format(INVALID_CURSOR_MSG, after));
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((start + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
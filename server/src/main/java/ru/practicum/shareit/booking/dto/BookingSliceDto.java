@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Collection;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@Builder
+public class BookingSliceDto {
+    final Collection<BookingDto> content;
+    final String nextCursor;
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.dto.BookingCartDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
@@ -44,4 +45,14 @@ public class BookingMapper {
                 .build();
     }
 
+    public static Booking toNewBooking(BookingCartDto bookingCartDto, User booker, Item item) {
+        return Booking.builder()
+                .start(bookingCartDto.getStart())
+                .end(bookingCartDto.getEnd())
+                .booker(booker)
+                .item(item)
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+
 }
@@ -9,7 +9,9 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -51,6 +53,25 @@ public class Booking {
     @ToString.Exclude
     User booker;
 
+    @Column(name = "owner_id")
+    Long ownerId;
+
     @Enumerated(EnumType.STRING)
     BookingStatus status;
+
+    @Enumerated(EnumType.STRING)
+    BookingPhase phase;
+
+    @Version
+    Long version;
+
+    @PrePersist
+    void initDerivedColumns() {
+        if (phase == null) {
+            phase = BookingPhase.of(start, end, LocalDateTime.now());
+        }
+        if (ownerId == null) {
+            ownerId = item.getOwner().getId();
+        }
+    }
 }
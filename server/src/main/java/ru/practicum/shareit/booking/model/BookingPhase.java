@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+public enum BookingPhase {
+    UPCOMING, ACTIVE, ENDED;
+
+    public static BookingPhase of(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return ENDED;
+        }
+        return start.isAfter(now) ? UPCOMING : ACTIVE;
+    }
+}
@@ -1,5 +1,5 @@
 package ru.practicum.shareit.booking.model;
 
 public enum BookingStatus {
-    WAITING, APPROVED, REJECTED, CANCELED
+    WAITING, APPROVED, REJECTED, CANCELED, EXPIRED
 }
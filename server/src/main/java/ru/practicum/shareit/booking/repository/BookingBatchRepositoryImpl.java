@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@RequiredArgsConstructor
+public class BookingBatchRepositoryImpl implements BookingBatchRepository {
+    static final String INSERT_SQL = "insert into bookings(start_date, end_date, item_id, booker_id, status, phase, version, owner_id) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Booking> insertAll(List<Booking> bookings) {
+        LocalDateTime now = LocalDateTime.now();
+        bookings.forEach(booking -> {
+            booking.setPhase(BookingPhase.of(booking.getStart(), booking.getEnd(), now));
+            booking.setVersion(0L);
+            booking.setOwnerId(booking.getItem().getOwner().getId());
+        });
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Booking booking = bookings.get(i);
+                        ps.setTimestamp(1, Timestamp.valueOf(booking.getStart()));
+                        ps.setTimestamp(2, Timestamp.valueOf(booking.getEnd()));
+                        ps.setLong(3, booking.getItem().getId());
+                        ps.setLong(4, booking.getBooker().getId());
+                        ps.setString(5, booking.getStatus().name());
+                        ps.setString(6, booking.getPhase().name());
+                        ps.setLong(7, booking.getVersion());
+                        ps.setLong(8, booking.getOwnerId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            bookings.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * DDL for the PostgreSQL layout of {@code bookings}: one range partition per month of {@code start_date}, named
+ * {@code bookings_pYYYYMM}, plus {@code bookings_default} for rows no monthly partition covers yet. The callers run
+ * these methods in a transaction holding {@link #lockPartitions()}.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Repository
+@RequiredArgsConstructor
+public class BookingPartitionRepository {
+    static final String PARTITION_PREFIX = "bookings_p";
+    static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    static final String ARCHIVE_SCHEMA = "booking_archive";
+    static final String COLUMNS = "id, start_date, end_date, item_id, booker_id, status, phase, version, owner_id";
+    static final int PARTITIONS_LOCK_CLASS = 1;
+    static final int PARTITIONS_LOCK_ID = 1;
+
+    final JdbcTemplate jdbcTemplate;
+
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists(select 1 from pg_partitioned_table where partrelid = to_regclass('bookings'))", Boolean.class));
+    }
+
+    public void lockPartitions() {
+        jdbcTemplate.queryForObject("select 1 from pg_advisory_xact_lock(?, ?)", Integer.class,
+                PARTITIONS_LOCK_CLASS, PARTITIONS_LOCK_ID);
+    }
+
+    public Set<YearMonth> findMonthlyPartitions() {
+        return jdbcTemplate.queryForList("select c.relname " +
+                        "from pg_inherits as i " +
+                        "join pg_class as c on c.oid = i.inhrelid " +
+                        "where i.inhparent = to_regclass('bookings') " +
+                        "  and c.relname like 'bookings\\_p%'", String.class).stream()
+                .map(name -> YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+                .collect(Collectors.toSet());
+    }
+
+    public void createMonthlyPartition(YearMonth month) {
+        String name = partitionName(month);
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        String bounds = String.format("for values from ('%s') to ('%s')", from, to);
+        Boolean defaultHasRows = jdbcTemplate.queryForObject("select exists(select 1 from bookings_default " +
+                "where start_date >= ? and start_date < ?)", Boolean.class, from, to);
+        if (!Boolean.TRUE.equals(defaultHasRows)) {
+            jdbcTemplate.execute("create table " + name + " partition of bookings " + bounds);
+            return;
+        }
+        // a partition cannot be added while the default one holds rows of its range, so they are moved over first
+        jdbcTemplate.execute("alter table bookings detach partition bookings_default");
+        jdbcTemplate.execute("create table " + name + " partition of bookings " + bounds);
+        jdbcTemplate.update("insert into bookings(" + COLUMNS + ") overriding system value " +
+                "select " + COLUMNS + " from bookings_default where start_date >= ? and start_date < ?", from, to);
+        jdbcTemplate.update("delete from bookings_default where start_date >= ? and start_date < ?", from, to);
+        jdbcTemplate.execute("alter table bookings attach partition bookings_default default");
+    }
+
+    public boolean archiveMonthlyPartition(YearMonth month, LocalDateTime endedBefore) {
+        String name = partitionName(month);
+        Boolean ended = jdbcTemplate.queryForObject("select not exists(select 1 from " + name + " " +
+                "where end_date >= ?)", Boolean.class, Timestamp.valueOf(endedBefore));
+        if (!Boolean.TRUE.equals(ended)) {
+            return false;
+        }
+        jdbcTemplate.execute("alter table bookings detach partition " + name);
+        jdbcTemplate.execute("alter table " + name + " set schema " + ARCHIVE_SCHEMA);
+        return true;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
@@ -1,41 +1,40 @@
 package ru.practicum.shareit.booking.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingCartCandidate;
+import ru.practicum.shareit.booking.dto.BookingDecisionCandidate;
+import ru.practicum.shareit.booking.dto.BookingPeriod;
+import ru.practicum.shareit.booking.dto.BookingTimes;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    Collection<Booking> findByItem_Owner_Id(Long itemId);
-
-    @Query("select booking " +
-            "from Booking as booking " +
-            "where booking.booker.id = ?1" +
-            "  and (?2 = 'ALL'" +
-            "    or ?2 = 'CURRENT' and CURRENT_TIMESTAMP between booking.start and booking.end" +
-            "    or ?2 = 'PAST' and booking.status = 'APPROVED' and booking.end < CURRENT_TIMESTAMP" +
-            "    or ?2 = 'FUTURE' and booking.status ='APPROVED' and booking.end >= CURRENT_TIMESTAMP" +
-            "    or ?2 = 'WAITING' and booking.status = 'WAITING'" +
-            "    or ?2 = 'REJECTED' and booking.status = 'REJECTED') " +
-            "order by booking.start desc")
-    Page<Booking> findAllByState(Long bookerId, String state, Pageable pageable);
-
-    @Query("select booking " +
-            "from Booking as booking " +
-            "where booking.item.owner.id = ?1" +
-            "  and (?2 = 'ALL'" +
-            "    or ?2 = 'CURRENT' and CURRENT_TIMESTAMP between booking.start and booking.end" +
-            "    or ?2 = 'PAST' and booking.status = 'APPROVED' and booking.end < CURRENT_TIMESTAMP" +
-            "    or ?2 = 'FUTURE' and booking.status ='APPROVED' and booking.end >= CURRENT_TIMESTAMP" +
-            "    or ?2 = 'WAITING' and booking.status = 'WAITING'" +
-            "    or ?2 = 'REJECTED' and booking.status = 'REJECTED') " +
-            "order by booking.start desc")
-    Page<Booking> findAllOwnerByState(Long ownerId, String state, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking>,
+        BookingBatchRepository {
+
+    @Override
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findById(Long bookingId);
+
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Page<Booking> findAll(Specification<Booking> specification, Pageable pageable);
 
     @Query("select (count(*) = 1) " +
             "from Booking as b " +
@@ -51,4 +50,106 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "  and b.status = 'APPROVED'" +
             "  and b.start <= ?2 and b.end >= ?1")
     boolean existIntersectingBookingDatesForItem(LocalDateTime start, LocalDateTime end, Long itemId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select b.item.id as itemId, b.start as start, b.end as end " +
+            "from Booking as b " +
+            "where b.status = 'APPROVED' " +
+            "  and b.end >= ?1")
+    Stream<BookingPeriod> streamApprovedPeriodsEndingFrom(LocalDateTime from);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select b.item.id as itemId, b.start as start, b.end as end " +
+            "from Booking as b " +
+            "where b.item.id = ?1 " +
+            "  and b.status = 'APPROVED' " +
+            "  and b.start <= ?3 and b.end >= ?2 " +
+            "order by b.start")
+    Stream<BookingPeriod> streamApprovedPeriods(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select b from Booking as b join fetch b.item join fetch b.booker where b.ownerId = ?1 order by b.start, b.id")
+    Stream<Booking> streamByOwnerId(Long ownerId);
+
+    @Query("select b.id as id, b.item.id as itemId, b.ownerId as ownerId, b.status as status, b.start as start, b.end as end, " +
+            "  (case when exists (select o.id from Booking as o " +
+            "                     where o.item = b.item " +
+            "                       and o.id <> b.id " +
+            "                       and o.status = 'APPROVED' " +
+            "                       and o.start <= b.end and o.end >= b.start) " +
+            "   then true else false end) as overlapsApproved " +
+            "from Booking as b " +
+            "where b.id in ?1")
+    List<BookingDecisionCandidate> findDecisionCandidates(Collection<Long> bookingIds);
+
+    @Modifying
+    @Query("update versioned Booking as b " +
+            "set b.status = case when b.id in ?1 then ?3 else ?4 end " +
+            "where b.id in ?2 " +
+            "  and b.status = 'WAITING'")
+    int updateWaitingStatuses(Collection<Long> approvedIds, Collection<Long> bookingIds,
+                              BookingStatus approved, BookingStatus rejected);
+
+    @Query("select i as item, " +
+            "  (case when exists (select b.id from Booking as b " +
+            "                     where b.item = i " +
+            "                       and b.status = 'APPROVED' " +
+            "                       and b.start <= ?3 and b.end >= ?2) " +
+            "   then true else false end) as booked " +
+            "from Item as i " +
+            "where i.id in ?1")
+    List<BookingCartCandidate> findCartCandidates(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end);
+
+    @Query("select b.id as id, b.start as start, b.end as end " +
+            "from Booking as b " +
+            "where (b.start > ?1 and b.start <= ?2) " +
+            "   or (b.end > ?1 and b.end <= ?2)")
+    List<BookingTimes> findAllChangingPhaseBetween(LocalDateTime from, LocalDateTime to);
+
+    @Query("select min(b.start) " +
+            "from Booking as b " +
+            "where b.phase is null or b.phase <> 'ENDED'")
+    Optional<LocalDateTime> findEarliestNotEndedStart();
+
+    @Modifying
+    @Query("update versioned Booking as b " +
+            "set b.phase = ?2 " +
+            "where b.id in ?1 " +
+            "  and b.phase in ?3")
+    int updatePhases(Collection<Long> bookingIds, BookingPhase phase, Collection<BookingPhase> previousPhases);
+
+    @Modifying
+    @Query("update versioned Booking as b " +
+            "set b.status = 'EXPIRED' " +
+            "where b.id in ?1 " +
+            "  and b.status = 'WAITING'")
+    int expireWaiting(Collection<Long> bookingIds);
+
+    @Modifying
+    @Query("update versioned Booking as b " +
+            "set b.phase = 'ENDED' " +
+            "where b.end < ?1 " +
+            "  and (b.phase is null or b.phase <> 'ENDED')")
+    int endPhasesBefore(LocalDateTime now);
+
+    @Modifying
+    @Query("update versioned Booking as b " +
+            "set b.phase = 'ACTIVE' " +
+            "where b.start <= ?1 and b.end >= ?1 " +
+            "  and (b.phase is null or b.phase = 'UPCOMING')")
+    int activatePhasesAt(LocalDateTime now);
+
+    @Modifying
+    @Query("update versioned Booking as b " +
+            "set b.phase = 'UPCOMING' " +
+            "where b.start > ?1 " +
+            "  and b.phase is null")
+    int initUpcomingPhasesAfter(LocalDateTime now);
+
+    @Modifying
+    @Query("update versioned Booking as b " +
+            "set b.status = 'EXPIRED' " +
+            "where b.start <= ?1 " +
+            "  and b.status = 'WAITING'")
+    int expireWaitingStartedBefore(LocalDateTime now);
 }
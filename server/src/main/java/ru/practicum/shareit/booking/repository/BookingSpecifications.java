@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+@UtilityClass
+public class BookingSpecifications {
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "start", "id");
+
+    static final Map<BookingState, Specification<Booking>> STATE_SPECIFICATIONS = new EnumMap<>(BookingState.class);
+    static final Set<BookingState> NOT_ENDED_STATES = EnumSet.of(BookingState.CURRENT, BookingState.FUTURE);
+
+    static {
+        STATE_SPECIFICATIONS.put(BookingState.ALL, (root, query, cb) -> cb.conjunction());
+        STATE_SPECIFICATIONS.put(BookingState.CURRENT, (root, query, cb) -> cb.equal(root.get("phase"), BookingPhase.ACTIVE));
+        STATE_SPECIFICATIONS.put(BookingState.PAST, (root, query, cb) -> cb.and(
+                cb.equal(root.get("status"), BookingStatus.APPROVED),
+                cb.equal(root.get("phase"), BookingPhase.ENDED)));
+        STATE_SPECIFICATIONS.put(BookingState.FUTURE, (root, query, cb) -> cb.and(
+                cb.equal(root.get("status"), BookingStatus.APPROVED),
+                root.get("phase").in(BookingPhase.UPCOMING, BookingPhase.ACTIVE)));
+        STATE_SPECIFICATIONS.put(BookingState.WAITING, (root, query, cb) -> cb.equal(root.get("status"), BookingStatus.WAITING));
+        STATE_SPECIFICATIONS.put(BookingState.REJECTED, (root, query, cb) -> cb.equal(root.get("status"), BookingStatus.REJECTED));
+    }
+
+    public static Specification<Booking> hasState(BookingState state) {
+        return STATE_SPECIFICATIONS.get(state);
+    }
+
+    /**
+     * Same as {@link #hasState(BookingState)}, but CURRENT and FUTURE are also bounded by {@code notEndedFrom}, the
+     * earliest start of a booking that has not ended yet, which lets partitioned storage skip older partitions.
+     */
+    public static Specification<Booking> hasState(BookingState state, LocalDateTime notEndedFrom) {
+        if (notEndedFrom == null || !NOT_ENDED_STATES.contains(state)) {
+            return hasState(state);
+        }
+        return hasState(state).and((root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDateTime>get("start"), notEndedFrom));
+    }
+
+    public static Specification<Booking> hasBooker(Long bookerId) {
+        return (root, query, cb) -> cb.equal(root.get("booker").get("id"), bookerId);
+    }
+
+    public static Specification<Booking> hasItemOwner(Long ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("ownerId"), ownerId);
+    }
+
+    public static Specification<Booking> isBefore(BookingCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.<LocalDateTime>get("start"), cursor.getStart()),
+                cb.and(cb.equal(root.get("start"), cursor.getStart()), cb.lessThan(root.get("id"), cursor.getId())));
+    }
+}
@@ -0,0 +1,195 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingPeriod;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Per-item index of APPROVED booking periods, kept as a sorted set of merged, non-overlapping intervals.
+ * Answers the same question as {@link BookingRepository#existIntersectingBookingDatesForItem} in O(log n)
+ * for periods starting no earlier than the moment it was loaded from; {@link #covers} tells callers when to fall
+ * back to the repository instead.
+ * <p>
+ * Holds only periods that had not ended when it was loaded. Kept current by {@link #add} after every approval made
+ * here and rebuilt from {@link BookingRepository} every {@code reconcile} period, which drops ended periods and
+ * picks up approvals made by other instances or straight in the database.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    final BookingRepository bookingRepository;
+
+    final TransactionTemplate transactionTemplate;
+
+    final Lock lock = new ReentrantLock();
+
+    @Value("${shareit.booking.interval-index.enabled:true}")
+    boolean enabled;
+
+    volatile Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> periodsByItem = new ConcurrentHashMap<>();
+    volatile LocalDateTime loadedFrom;
+    List<Period> addsDuringRebuild;
+    volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.interval-index.reconcile:PT1M}",
+            fixedDelayString = "${shareit.booking.interval-index.reconcile:PT1M}")
+    public void reconcile() {
+        if (ready) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether {@link #hasIntersection} can answer for a period from {@code start}: periods that ended before the
+     * index was loaded are not in it.
+     */
+    public boolean covers(LocalDateTime start) {
+        return ready && !start.isBefore(loadedFrom);
+    }
+
+    public boolean hasIntersection(Long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, LocalDateTime> periods = periodsByItem.get(itemId);
+        if (periods == null) {
+            return false;
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> candidate = periods.floorEntry(end);
+        return candidate != null && !candidate.getValue().isBefore(start);
+    }
+
+    public void add(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(itemId, start, end);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(itemId, start, end);
+            }
+        });
+    }
+
+    private void apply(Long itemId, LocalDateTime start, LocalDateTime end) {
+        lock.lock();
+        try {
+            addPeriod(periodsByItem, itemId, start, end);
+            if (addsDuringRebuild != null) {
+                addsDuringRebuild.add(new Period(itemId, start, end));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        lock.lock();
+        try {
+            addsDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        LocalDateTime from = LocalDateTime.now();
+        Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> rebuilt = new ConcurrentHashMap<>();
+        long loaded;
+        try {
+            loaded = transactionTemplate.execute(status -> {
+                long count = 0;
+                try (Stream<BookingPeriod> periods = bookingRepository.streamApprovedPeriodsEndingFrom(from)) {
+                    for (Iterator<BookingPeriod> iterator = periods.iterator(); iterator.hasNext(); count++) {
+                        BookingPeriod period = iterator.next();
+                        addPeriod(rebuilt, period.getItemId(), period.getStart(), period.getEnd());
+                    }
+                }
+                return count;
+            });
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                addsDuringRebuild = null;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        lock.lock();
+        try {
+            // approvals committed while the periods were read may be missing from the snapshot, so they go on top
+            addsDuringRebuild.forEach(period -> addPeriod(rebuilt, period.itemId(), period.start(), period.end()));
+            addsDuringRebuild = null;
+            periodsByItem = rebuilt;
+            loadedFrom = from;
+        } finally {
+            lock.unlock();
+        }
+        ready = true;
+        log.info("Booking interval index built: {} approved bookings not ended by {}, {} items", loaded, from, rebuilt.size());
+    }
+
+    private static void addPeriod(Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> periodsByItem,
+                                  Long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, LocalDateTime> periods = periodsByItem.computeIfAbsent(itemId, id -> new ConcurrentSkipListMap<>());
+        synchronized (periods) {
+            LocalDateTime mergedStart = start;
+            LocalDateTime mergedEnd = end;
+            Map.Entry<LocalDateTime, LocalDateTime> floor = periods.floorEntry(start);
+            if (floor != null && !floor.getValue().isBefore(start)) {
+                mergedStart = floor.getKey();
+                mergedEnd = max(mergedEnd, floor.getValue());
+            }
+            List<LocalDateTime> absorbed = new ArrayList<>();
+            for (Map.Entry<LocalDateTime, LocalDateTime> next : periods.tailMap(mergedStart, false).entrySet()) {
+                if (next.getKey().isAfter(mergedEnd)) {
+                    break;
+                }
+                mergedEnd = max(mergedEnd, next.getValue());
+                absorbed.add(next.getKey());
+            }
+            // the merged period goes in before the absorbed ones leave, so concurrent readers never see a gap
+            periods.put(mergedStart, mergedEnd);
+            absorbed.forEach(periods::remove);
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private record Period(Long itemId, LocalDateTime start, LocalDateTime end) {
+    }
+}
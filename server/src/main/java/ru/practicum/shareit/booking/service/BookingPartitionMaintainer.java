@@ -0,0 +1,99 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingPartitionRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.Set;
+
+/**
+ * Keeps monthly partitions of {@code bookings} created {@code months-ahead} months in advance and moves partitions
+ * whose bookings all ended more than {@code retention} ago to the {@code booking_archive} schema.
+ * <p>
+ * Also tracks {@link #getNotEndedFrom()}: no booking that has not ended starts before it, so CURRENT and FUTURE
+ * queries can bound {@code start_date} from below and skip the partitions of older months.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingPartitionMaintainer {
+    final BookingPartitionRepository bookingPartitionRepository;
+    final BookingRepository bookingRepository;
+    final TransactionTemplate transactionTemplate;
+
+    @Value("${shareit.booking.partitions.enabled:true}")
+    boolean enabled;
+
+    @Value("${shareit.booking.partitions.months-ahead:12}")
+    int monthsAhead;
+
+    @Value("${shareit.booking.partitions.retention:P3Y}")
+    Period retention;
+
+    volatile boolean partitioned;
+    volatile LocalDateTime notEndedFrom;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        partitioned = bookingPartitionRepository.isPartitioned();
+        if (!partitioned) {
+            log.warn("Bookings table is not partitioned, partition maintenance is off");
+            return;
+        }
+        maintain(LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.partitions.tick:PT1H}")
+    public void tick() {
+        if (partitioned) {
+            maintain(LocalDateTime.now());
+        }
+    }
+
+    public LocalDateTime getNotEndedFrom() {
+        return notEndedFrom;
+    }
+
+    void maintain(LocalDateTime now) {
+        YearMonth current = YearMonth.from(now);
+        YearMonth archivedBefore = YearMonth.from(now.minus(retention));
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingPartitionRepository.lockPartitions();
+            Set<YearMonth> months = bookingPartitionRepository.findMonthlyPartitions();
+            for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+                if (!months.contains(month)) {
+                    bookingPartitionRepository.createMonthlyPartition(month);
+                    log.info("Booking partition for {} created", month);
+                }
+            }
+            months.stream()
+                    .filter(month -> month.isBefore(archivedBefore))
+                    .sorted()
+                    .filter(month -> bookingPartitionRepository.archiveMonthlyPartition(month,
+                            archivedBefore.atDay(1).atStartOfDay()))
+                    .forEach(month -> log.info("Booking partition for {} archived", month));
+        });
+        // a day of slack covers bookings validated just before now and committed after the query
+        LocalDateTime earliest = bookingRepository.findEarliestNotEndedStart()
+                .filter(start -> start.isBefore(now))
+                .orElse(now)
+                .minusDays(1);
+        notEndedFrom = YearMonth.from(earliest).atDay(1).atStartOfDay();
+    }
+}
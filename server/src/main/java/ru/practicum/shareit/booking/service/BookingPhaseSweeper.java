@@ -0,0 +1,139 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingTimes;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves bookings through {@link BookingPhase} as their start and end pass, and expires WAITING bookings whose start
+ * has passed. Upcoming starts and ends are kept in timing wheels covering the next {@code wheel-size * tick}; the
+ * wheels are refilled from the database once half of that horizon is used up, and every refill also runs the
+ * time-based catch-up updates, so a transition missed by the wheels is applied on the next refill at the latest.
+ * Every transition also refreshes the last/next booking pointers of the affected items.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingPhaseSweeper {
+    static final List<BookingPhase> NOT_STARTED_PHASES = List.of(BookingPhase.UPCOMING);
+    static final List<BookingPhase> NOT_ENDED_PHASES = List.of(BookingPhase.UPCOMING, BookingPhase.ACTIVE);
+
+    final BookingRepository bookingRepository;
+    final ItemRepository itemRepository;
+    final TransactionTemplate transactionTemplate;
+
+    @Value("${shareit.booking.sweeper.enabled:true}")
+    boolean enabled;
+
+    @Value("${shareit.booking.sweeper.tick:PT1M}")
+    Duration tick;
+
+    @Value("${shareit.booking.sweeper.wheel-size:1440}")
+    int wheelSize;
+
+    volatile TimingWheel<Long> starts;
+    volatile TimingWheel<Long> ends;
+    volatile LocalDateTime loadedUntil;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            start(LocalDateTime.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.sweeper.tick:PT1M}")
+    public void tick() {
+        if (starts != null) {
+            advance(LocalDateTime.now());
+        }
+    }
+
+    public void schedule(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            scheduleTransitions(bookingId, start, end);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                scheduleTransitions(bookingId, start, end);
+            }
+        });
+    }
+
+    synchronized void start(LocalDateTime now) {
+        starts = new TimingWheel<>(tick, wheelSize, now);
+        ends = new TimingWheel<>(tick, wheelSize, now);
+        loadedUntil = now;
+        reload(now);
+    }
+
+    synchronized void advance(LocalDateTime now) {
+        List<Long> startedIds = starts.advance(now);
+        List<Long> endedIds = ends.advance(now);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!startedIds.isEmpty()) {
+                bookingRepository.updatePhases(startedIds, BookingPhase.ACTIVE, NOT_STARTED_PHASES);
+                bookingRepository.expireWaiting(startedIds);
+                itemRepository.refreshBookingPointersOfBookings(startedIds);
+            }
+            if (!endedIds.isEmpty()) {
+                bookingRepository.updatePhases(endedIds, BookingPhase.ENDED, NOT_ENDED_PHASES);
+                itemRepository.refreshBookingPointersOfBookings(endedIds);
+            }
+        });
+        if (loadedUntil.isBefore(now.plus(tick.multipliedBy(wheelSize / 2)))) {
+            reload(now);
+        }
+    }
+
+    private void reload(LocalDateTime now) {
+        LocalDateTime from = loadedUntil;
+        LocalDateTime to = starts.getHorizon();
+        // raised before the query, so bookings committed meanwhile are scheduled by schedule() and not lost in between
+        loadedUntil = to;
+        List<BookingTimes> bookings = transactionTemplate.execute(status -> {
+            int ended = bookingRepository.endPhasesBefore(now);
+            int activated = bookingRepository.activatePhasesAt(now);
+            int expired = bookingRepository.expireWaitingStartedBefore(now);
+            bookingRepository.initUpcomingPhasesAfter(now);
+            int refreshed = itemRepository.refreshStaleBookingPointers(now);
+            log.info("Booking phases caught up: {} ended, {} activated, {} expired, {} item pointers refreshed",
+                    ended, activated, expired, refreshed);
+            return bookingRepository.findAllChangingPhaseBetween(from, to);
+        });
+        bookings.forEach(booking -> scheduleTransitions(booking.getId(), booking.getStart(), booking.getEnd()));
+        log.info("Booking phase transitions loaded until {}: {} bookings", to, bookings.size());
+    }
+
+    private void scheduleTransitions(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        if (starts == null) {
+            return;
+        }
+        if (!start.isAfter(loadedUntil)) {
+            starts.schedule(start, bookingId);
+        }
+        if (!end.isAfter(loadedUntil)) {
+            ends.schedule(end, bookingId);
+        }
+    }
+}
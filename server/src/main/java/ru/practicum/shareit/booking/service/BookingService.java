@@ -1,10 +1,15 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingCartDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
 import ru.practicum.shareit.booking.model.BookingState;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
@@ -14,7 +19,19 @@ public interface BookingService {
 
     Collection<BookingDto> findBookingsOwnerByState(Long ownerId, BookingState state, Integer from, Integer size);
 
+    BookingSliceDto findBookingsByStateAfter(Long bookerId, BookingState state, String after, Integer size);
+
+    BookingSliceDto findBookingsOwnerByStateAfter(Long ownerId, BookingState state, String after, Integer size);
+
     BookingDto create(Long bookerId, BookingShortDto newBookingShortDto);
 
+    Collection<BookingDto> createAll(Long bookerId, BookingCartDto bookingCartDto);
+
     BookingDto update(Long ownerId, Long bookingId, Boolean approved);
+
+    Collection<BookingDecisionResultDto> updateAll(Long ownerId, Collection<BookingDecisionDto> decisions);
+
+    void checkOwnerExists(Long ownerId);
+
+    void exportOwnerBookings(Long ownerId, Consumer<BookingDto> action);
 }
@@ -1,12 +1,25 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCartCandidate;
+import ru.practicum.shareit.booking.dto.BookingCartDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionCandidate;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
@@ -20,16 +33,42 @@ import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.NEWEST_FIRST;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.hasBooker;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.hasItemOwner;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.hasState;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.isBefore;
 
 @FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
     final UserRepository userRepository;
     final ItemRepository itemRepository;
     final BookingRepository bookingRepository;
+    final BookingIntervalIndex bookingIntervalIndex;
+    final BookingPhaseSweeper bookingPhaseSweeper;
+    final BookingPartitionMaintainer bookingPartitionMaintainer;
+    final EntityManager entityManager;
 
     static final String ITEM_NOT_AVAILABLE_MSG = "Вещь с id = %d недоступна для бронирования";
     static final String BOOKING_NOT_FOUND_MSG = "Бронирование с id = %d не найдено";
@@ -40,6 +79,12 @@ public class BookingServiceImpl implements BookingService {
     static final String BOOKING_HAS_INTERSECTIONS_MSG = "Нельзя забронировать вещь, так как запрошенные даты бронирования " +
             " пересекаются с существующими интервалами бронирования";
     static final String STATUS_NOT_WAITING_MSG = "Для подтверждения у бронирования c id = %d должен быть статус WAITING";
+    static final String CONCURRENT_DECISION_MSG = "Бронирование с id = %d было изменено параллельным запросом";
+    static final String APPROVAL_INTERSECTS_MSG = "Бронирование с id = %d пересекается с подтверждённым бронированием вещи";
+    static final String DUPLICATE_DECISION_MSG = "Бронирование с id = %d уже указано в пакете";
+    static final String EXCLUSION_VIOLATION_SQL_STATE = "23P01";
+    static final int UPDATE_MAX_ATTEMPTS = 3;
+    static final int EXPORT_CLEAR_INTERVAL = 500;
 
     @Override
     public BookingDto findBookingById(Long userId, Long bookingId) {
@@ -53,17 +98,32 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public Collection<BookingDto> findBookingsByState(Long bookerId, BookingState state, Integer from, Integer size) {
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        return BookingMapper.toBookingDto(bookingRepository.findAllByState(bookerId, state.toString(), page).getContent());
+        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size, NEWEST_FIRST);
+        return BookingMapper.toBookingDto(bookingRepository.findAll(hasBooker(bookerId).and(hasState(state, bookingPartitionMaintainer.getNotEndedFrom())), page).getContent());
     }
 
     @Override
     public Collection<BookingDto> findBookingsOwnerByState(Long ownerId, BookingState state, Integer from, Integer size) {
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
+        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size, NEWEST_FIRST);
         if (!itemRepository.existsItemsByOwnerId(ownerId)) {
             throw new NotFoundException(String.format(OWNED_ITEMS_NOT_FOUND_MSG, ownerId));
         }
-        return BookingMapper.toBookingDto(bookingRepository.findAllOwnerByState(ownerId, state.toString(), page));
+        return BookingMapper.toBookingDto(bookingRepository.findAll(hasItemOwner(ownerId).and(hasState(state, bookingPartitionMaintainer.getNotEndedFrom())), page).getContent());
+    }
+
+    @Override
+    public BookingSliceDto findBookingsByStateAfter(Long bookerId, BookingState state, String after, Integer size) {
+        BookingCursor cursor = BookingCursor.decode(after);
+        return findSlice(hasBooker(bookerId).and(hasState(state, bookingPartitionMaintainer.getNotEndedFrom())).and(isBefore(cursor)), size);
+    }
+
+    @Override
+    public BookingSliceDto findBookingsOwnerByStateAfter(Long ownerId, BookingState state, String after, Integer size) {
+        BookingCursor cursor = BookingCursor.decode(after);
+        if (!itemRepository.existsItemsByOwnerId(ownerId)) {
+            throw new NotFoundException(String.format(OWNED_ITEMS_NOT_FOUND_MSG, ownerId));
+        }
+        return findSlice(hasItemOwner(ownerId).and(hasState(state, bookingPartitionMaintainer.getNotEndedFrom())).and(isBefore(cursor)), size);
     }
 
     @Override
@@ -76,15 +136,149 @@ public class BookingServiceImpl implements BookingService {
         if (item.getOwner().equals(booker)) {
             throw new BadRequestException(String.format(OWNER_CANT_BOOK_MSG, item.getId()));
         }
-        if (bookingRepository.existIntersectingBookingDatesForItem(newBookingShortDto.getStart(), newBookingShortDto.getEnd(), item.getId())) {
+        if (hasIntersectingBookings(item.getId(), newBookingShortDto.getStart(), newBookingShortDto.getEnd())) {
             throw new BadRequestException(BOOKING_HAS_INTERSECTIONS_MSG);
         }
-        Booking newBooking = BookingMapper.toNewBooking(newBookingShortDto, booker, item);
-        return BookingMapper.toBookingDto(bookingRepository.save(newBooking));
+        Booking newBooking = bookingRepository.save(BookingMapper.toNewBooking(newBookingShortDto, booker, item));
+        bookingPhaseSweeper.schedule(newBooking.getId(), newBooking.getStart(), newBooking.getEnd());
+        return BookingMapper.toBookingDto(newBooking);
+    }
+
+    @Override
+    @Transactional
+    public Collection<BookingDto> createAll(Long bookerId, BookingCartDto bookingCartDto) {
+        User booker = userRepository.getUserById(bookerId);
+        Set<Long> itemIds = new LinkedHashSet<>(bookingCartDto.getItemIds());
+        Map<Long, BookingCartCandidate> candidates = bookingRepository
+                .findCartCandidates(itemIds, bookingCartDto.getStart(), bookingCartDto.getEnd()).stream()
+                .collect(Collectors.toMap(candidate -> candidate.getItem().getId(), Function.identity()));
+        List<Booking> newBookings = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            BookingCartCandidate candidate = candidates.get(itemId);
+            if (candidate == null) {
+                throw new NotFoundException(String.format(ItemRepository.ITEM_NOT_FOUND_MSG, itemId));
+            }
+            Item item = candidate.getItem();
+            if (!item.getAvailable()) {
+                throw new BadRequestException(String.format(ITEM_NOT_AVAILABLE_MSG, itemId));
+            }
+            if (item.getOwner().getId().equals(bookerId)) {
+                throw new BadRequestException(String.format(OWNER_CANT_BOOK_MSG, itemId));
+            }
+            if (candidate.getBooked()) {
+                throw new BadRequestException(BOOKING_HAS_INTERSECTIONS_MSG);
+            }
+            newBookings.add(BookingMapper.toNewBooking(bookingCartDto, booker, item));
+        }
+        bookingRepository.insertAll(newBookings).forEach(booking ->
+                bookingPhaseSweeper.schedule(booking.getId(), booking.getStart(), booking.getEnd()));
+        return BookingMapper.toBookingDto(newBookings);
     }
 
     @Override
     public BookingDto update(Long ownerId, Long bookingId, Boolean approved) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return updateStatus(ownerId, bookingId, approved);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == UPDATE_MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Booking id={} changed concurrently, retrying status update, attempt {}", bookingId, attempt);
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public Collection<BookingDecisionResultDto> updateAll(Long ownerId, Collection<BookingDecisionDto> decisions) {
+        Map<Long, Boolean> approvedById = new LinkedHashMap<>();
+        decisions.forEach(decision -> approvedById.putIfAbsent(decision.getBookingId(), Boolean.TRUE.equals(decision.getApproved())));
+        if (approvedById.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookingDecisionCandidate> candidates = bookingRepository.findDecisionCandidates(approvedById.keySet()).stream()
+                .collect(Collectors.toMap(BookingDecisionCandidate::getId, Function.identity()));
+        Map<Long, String> errors = new HashMap<>();
+        List<Long> acceptedIds = new ArrayList<>();
+        List<Long> approvedIds = new ArrayList<>();
+        Map<Long, List<BookingDecisionCandidate>> approvedByItem = new HashMap<>();
+        approvedById.forEach((bookingId, approved) -> {
+            BookingDecisionCandidate candidate = candidates.get(bookingId);
+            if (candidate == null) {
+                errors.put(bookingId, String.format(BOOKING_NOT_FOUND_MSG, bookingId));
+            } else if (!candidate.getOwnerId().equals(ownerId)) {
+                errors.put(bookingId, String.format(NOT_ITEM_OWNER_MSG, ownerId));
+            } else if (candidate.getStatus() != BookingStatus.WAITING) {
+                errors.put(bookingId, String.format(STATUS_NOT_WAITING_MSG, bookingId));
+            } else if (approved && (Boolean.TRUE.equals(candidate.getOverlapsApproved())
+                    || intersectsAny(candidate, approvedByItem.getOrDefault(candidate.getItemId(), List.of())))) {
+                // approving it would trip the overlap trigger and roll back the whole batch
+                errors.put(bookingId, String.format(APPROVAL_INTERSECTS_MSG, bookingId));
+            } else {
+                acceptedIds.add(bookingId);
+                if (approved) {
+                    approvedIds.add(bookingId);
+                    approvedByItem.computeIfAbsent(candidate.getItemId(), itemId -> new ArrayList<>()).add(candidate);
+                }
+            }
+        });
+        if (!acceptedIds.isEmpty()) {
+            int updated;
+            try {
+                updated = bookingRepository.updateWaitingStatuses(approvedIds, acceptedIds, BookingStatus.APPROVED, BookingStatus.REJECTED);
+            } catch (DataIntegrityViolationException e) {
+                if (isIntersectionViolation(e)) {
+                    throw new BadRequestException(BOOKING_HAS_INTERSECTIONS_MSG);
+                }
+                throw e;
+            }
+            if (updated < acceptedIds.size()) {
+                // the status = WAITING guard lost a race for some rows; report the ones another request decided differently
+                bookingRepository.findDecisionCandidates(acceptedIds).forEach(current -> {
+                    BookingStatus intended = approvedById.get(current.getId()) ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+                    if (current.getStatus() != intended) {
+                        errors.put(current.getId(), String.format(CONCURRENT_DECISION_MSG, current.getId()));
+                        approvedIds.remove(current.getId());
+                    }
+                });
+            }
+            approvedIds.stream()
+                    .map(candidates::get)
+                    .forEach(candidate -> bookingIntervalIndex.add(candidate.getItemId(), candidate.getStart(), candidate.getEnd()));
+            if (!approvedIds.isEmpty()) {
+                itemRepository.refreshBookingPointers(approvedIds.stream()
+                        .map(bookingId -> candidates.get(bookingId).getItemId())
+                        .collect(Collectors.toSet()));
+            }
+        }
+        Set<Long> reportedIds = new HashSet<>();
+        return decisions.stream()
+                .map(decision -> {
+                    Long bookingId = decision.getBookingId();
+                    if (!reportedIds.add(bookingId)) {
+                        return toFailedDecision(bookingId, String.format(DUPLICATE_DECISION_MSG, bookingId));
+                    }
+                    if (errors.containsKey(bookingId)) {
+                        return toFailedDecision(bookingId, errors.get(bookingId));
+                    }
+                    BookingStatus status = approvedById.get(bookingId) ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+                    return BookingDecisionResultDto.builder()
+                            .bookingId(bookingId)
+                            .status(status.name())
+                            .build();
+                })
+                .toList();
+    }
+
+    private static BookingDecisionResultDto toFailedDecision(Long bookingId, String error) {
+        return BookingDecisionResultDto.builder()
+                .bookingId(bookingId)
+                .error(error)
+                .build();
+    }
+
+    private BookingDto updateStatus(Long ownerId, Long bookingId, Boolean approved) {
         Optional<User> optOwner = userRepository.findById(ownerId);
         Booking booking = getBookingById(bookingId);
         if (optOwner.isEmpty() || !optOwner.get().equals(booking.getItem().getOwner())) {
@@ -94,7 +288,75 @@ public class BookingServiceImpl implements BookingService {
             throw new NotAllowedException(String.format(STATUS_NOT_WAITING_MSG, bookingId));
         }
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        Booking updatedBooking;
+        try {
+            updatedBooking = bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isIntersectionViolation(e)) {
+                throw new BadRequestException(BOOKING_HAS_INTERSECTIONS_MSG);
+            }
+            throw e;
+        }
+        if (updatedBooking.getStatus() == BookingStatus.APPROVED) {
+            bookingIntervalIndex.add(updatedBooking.getItem().getId(), updatedBooking.getStart(), updatedBooking.getEnd());
+            itemRepository.refreshBookingPointers(List.of(updatedBooking.getItem().getId()));
+        }
+        return BookingMapper.toBookingDto(updatedBooking);
+    }
+
+    private BookingSliceDto findSlice(Specification<Booking> specification, Integer size) {
+        List<Booking> bookings = bookingRepository.findBy(specification, query -> query
+                .sortBy(NEWEST_FIRST)
+                .project("item", "booker")
+                .limit(size + 1)
+                .all());
+        String nextCursor = null;
+        if (bookings.size() > size) {
+            bookings = bookings.subList(0, size);
+            Booking last = bookings.get(size - 1);
+            nextCursor = new BookingCursor(last.getStart(), last.getId()).encode();
+        }
+        return BookingSliceDto.builder()
+                .content(BookingMapper.toBookingDto(bookings))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public void checkOwnerExists(Long ownerId) {
+        userRepository.getUserById(ownerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOwnerBookings(Long ownerId, Consumer<BookingDto> action) {
+        try (Stream<Booking> bookings = bookingRepository.streamByOwnerId(ownerId)) {
+            int exported = 0;
+            for (Iterator<Booking> iterator = bookings.iterator(); iterator.hasNext(); ) {
+                action.accept(BookingMapper.toBookingDto(iterator.next()));
+                // otherwise the persistence context keeps every exported booking until the export ends
+                if (++exported % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    private boolean hasIntersectingBookings(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingIntervalIndex.covers(start)) {
+            return bookingIntervalIndex.hasIntersection(itemId, start, end);
+        }
+        return bookingRepository.existIntersectingBookingDatesForItem(start, end, itemId);
+    }
+
+    private static boolean intersectsAny(BookingDecisionCandidate candidate, List<BookingDecisionCandidate> others) {
+        return others.stream().anyMatch(other -> !other.getStart().isAfter(candidate.getEnd())
+                && !other.getEnd().isBefore(candidate.getStart()));
+    }
+
+    private static boolean isIntersectionViolation(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause() instanceof SQLException sqlException
+                && EXCLUSION_VIOLATION_SQL_STATE.equals(sqlException.getSQLState());
     }
 
     private Booking getBookingById(Long bookingId) {
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel of {@code wheelSize} slots, {@code tick} apart. A payload scheduled for {@code due} lands in the
+ * first slot whose tick is not earlier than {@code due} and is returned by the first {@link #advance} call made at or
+ * after that tick. Payloads due beyond {@link #getHorizon()} are not accepted.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TimingWheel<T> {
+    final LocalDateTime origin;
+    final long tickMillis;
+    final List<List<T>> slots;
+
+    long currentTick;
+
+    TimingWheel(Duration tick, int wheelSize, LocalDateTime origin) {
+        this.origin = origin;
+        this.tickMillis = tick.toMillis();
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    synchronized boolean schedule(LocalDateTime due, T payload) {
+        long dueTick = Math.max(Math.ceilDiv(millisSinceOrigin(due), tickMillis), currentTick + 1);
+        if (dueTick - currentTick > slots.size()) {
+            return false;
+        }
+        slots.get(slotIndex(dueTick)).add(payload);
+        return true;
+    }
+
+    synchronized List<T> advance(LocalDateTime now) {
+        long nowTick = Math.floorDiv(millisSinceOrigin(now), tickMillis);
+        List<T> due = new ArrayList<>();
+        for (long tick = currentTick + 1; tick <= nowTick && tick <= currentTick + slots.size(); tick++) {
+            List<T> slot = slots.get(slotIndex(tick));
+            due.addAll(slot);
+            slot.clear();
+        }
+        currentTick = Math.max(currentTick, nowTick);
+        return due;
+    }
+
+    synchronized LocalDateTime getHorizon() {
+        return origin.plus(Duration.ofMillis((currentTick + slots.size()) * tickMillis));
+    }
+
+    private long millisSinceOrigin(LocalDateTime time) {
+        return Duration.between(origin, time).toMillis();
+    }
+
+    private int slotIndex(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+}
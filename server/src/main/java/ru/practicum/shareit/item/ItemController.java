@@ -1,9 +1,18 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,13 +23,28 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+import ru.practicum.shareit.item.dto.ItemPhotoDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.model.GeoCircle;
+import ru.practicum.shareit.item.model.ItemSort;
+import ru.practicum.shareit.item.service.ItemPhotoService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 import static ru.practicum.shareit.common.CommonConstants.X_SHARER_USER_ID;
 
@@ -29,11 +53,34 @@ import static ru.practicum.shareit.common.CommonConstants.X_SHARER_USER_ID;
 @RestController
 @RequestMapping("/items")
 public class ItemController {
+    static final CacheControl PHOTO_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    static final String IMAGE_WEBP_VALUE = "image/webp";
+    static final Set<MediaType> PHOTO_CONTENT_TYPES = Set.of(MediaType.IMAGE_JPEG, MediaType.IMAGE_PNG, MediaType.IMAGE_GIF,
+            MediaType.valueOf(IMAGE_WEBP_VALUE));
+    static final String X_CONTENT_TYPE_OPTIONS = "X-Content-Type-Options";
+
     final ItemService itemService;
+    final ItemPhotoService itemPhotoService;
+    final ObjectMapper objectMapper;
 
     @GetMapping
-    public Collection<ItemDto> findAllItemsByOwnerId(@RequestHeader(X_SHARER_USER_ID) Long userId) {
-        return itemService.findAllItemsByOwnerId(userId);
+    public Collection<ItemDto> findAllItemsByOwnerId(@RequestHeader(X_SHARER_USER_ID) Long userId,
+                                                     @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                     @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                     @RequestParam(name = "sort", defaultValue = "DEFAULT") String sort) {
+        return itemService.findAllItemsByOwnerId(userId, from, size, ItemSort.valueOf(sort));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestHeader(X_SHARER_USER_ID) Long userId) {
+        itemService.checkOwnerExists(userId);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                itemService.exportItems(userId, item -> writeLine(generator, item));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/{id}")
@@ -41,9 +88,35 @@ public class ItemController {
         return itemService.findItemById(id);
     }
 
+    @GetMapping("/suggest")
+    public Collection<ItemShortDto> suggestItems(@RequestParam String prefix,
+                                                 @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemService.suggestItems(prefix, size);
+    }
+
     @GetMapping("/search")
-    public Collection<ItemShortDto> searchItems(@RequestParam String text) {
-        return itemService.searchItems(text);
+    public Collection<ItemShortDto> searchItems(@RequestParam(name = "text", defaultValue = "") String text,
+                                                @RequestParam(name = "near", required = false) String near,
+                                                @RequestParam(name = "radius", defaultValue = "5") Double radius,
+                                                @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                @RequestParam(name = "sort", defaultValue = "DEFAULT") String sort) {
+        return itemService.searchItems(text, near != null ? GeoCircle.of(near, radius) : null, from, size, ItemSort.valueOf(sort));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<StreamingResponseBody> findAvailability(@PathVariable Long itemId,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        itemService.checkAvailabilityPeriod(itemId, from, to);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                itemService.findAvailability(itemId, from, to, slot -> writeSlot(generator, slot));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @PostMapping
@@ -52,6 +125,13 @@ public class ItemController {
         return itemService.create(userId, newItem);
     }
 
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemImportResultDto importItems(@RequestHeader(X_SHARER_USER_ID) Long userId, InputStream body) throws IOException {
+        try (MappingIterator<ItemImportRowDto> rows = objectMapper.readerFor(ItemImportRowDto.class).readValues(body)) {
+            return itemService.importItems(userId, rows);
+        }
+    }
+
     @PatchMapping("/{itemId}")
     public ItemShortDto update(@RequestHeader(X_SHARER_USER_ID) Long userId, @RequestBody ItemShortDto updItem, @PathVariable Long itemId) {
         return itemService.update(userId, itemId, updItem);
@@ -63,4 +143,95 @@ public class ItemController {
         return itemService.addComment(userId, itemId, commentShortDto);
     }
 
+    @PostMapping(path = "/{itemId}/photos", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE,
+            MediaType.IMAGE_GIF_VALUE, IMAGE_WEBP_VALUE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public ItemPhotoDto uploadPhoto(@RequestHeader(X_SHARER_USER_ID) Long userId, @PathVariable Long itemId,
+                                    @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+        return itemPhotoService.upload(userId, itemId, contentType.toString(), body);
+    }
+
+    @GetMapping("/{itemId}/photos")
+    public Collection<ItemPhotoDto> findPhotos(@PathVariable Long itemId) {
+        return itemPhotoService.findPhotos(itemId);
+    }
+
+    /**
+     * A photo never changes under its hash, so the hash is its strong ETag and it may be cached for good. A single
+     * byte range is answered with 206, or with 416 when it starts past the end; several ranges, or a range whose
+     * If-Range no longer matches, get the whole photo. Only raster types are served as such, never sniffed by the
+     * browser, so a photo cannot run as a page of this origin.
+     */
+    @GetMapping("/{itemId}/photos/{hash}")
+    public ResponseEntity<StreamingResponseBody> downloadPhoto(@PathVariable Long itemId, @PathVariable String hash,
+                                                               @RequestHeader HttpHeaders requestHeaders) {
+        ItemPhotoDto photo = itemPhotoService.findPhoto(itemId, hash);
+        String eTag = "\"" + photo.getHash() + "\"";
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (ifNoneMatch.contains(eTag) || ifNoneMatch.contains("*")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(PHOTO_CACHE_CONTROL).build();
+        }
+        long size = photo.getSize();
+        List<HttpRange> ranges = requestRanges(requestHeaders, eTag);
+        long start = 0;
+        long end = size - 1;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (ranges.size() == 1) {
+            start = ranges.get(0).getRangeStart(size);
+            end = ranges.get(0).getRangeEnd(size);
+            if (start >= size) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build();
+            }
+            response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        long position = start;
+        long count = end - start + 1;
+        return response
+                .eTag(eTag)
+                .cacheControl(PHOTO_CACHE_CONTROL)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(X_CONTENT_TYPE_OPTIONS, "nosniff")
+                .contentType(servedContentType(photo.getContentType()))
+                .contentLength(count)
+                .body(outputStream -> itemPhotoService.transferPhoto(photo.getHash(), position, count, outputStream));
+    }
+
+    private static MediaType servedContentType(String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return PHOTO_CONTENT_TYPES.stream().anyMatch(type -> type.equalsTypeAndSubtype(mediaType))
+                ? mediaType : MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    private static List<HttpRange> requestRanges(HttpHeaders requestHeaders, String eTag) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(eTag)) {
+            return List.of();
+        }
+        try {
+            return requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            // a Range header that cannot be parsed is ignored, as if it were absent
+            return List.of();
+        }
+    }
+
+    private static void writeLine(JsonGenerator generator, Object value) {
+        try {
+            generator.writePOJO(value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeSlot(JsonGenerator generator, AvailabilitySlotDto slot) {
+        try {
+            generator.writePOJO(slot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 public class CommentDto {
     final Long id;
     final String text;
+    final Integer rating;
     final String authorName;
     final LocalDateTime created;
 }
@@ -12,4 +12,5 @@ import lombok.experimental.FieldDefaults;
 @AllArgsConstructor
 public class CommentShortDto {
     String text;
+    Integer rating;
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Number of approved bookings of an item, the measure of its popularity in suggestions.
+ */
+public interface ItemBookingCount {
+    Long getItemId();
+
+    Long getBookings();
+}
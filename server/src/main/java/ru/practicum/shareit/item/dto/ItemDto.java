@@ -19,5 +19,7 @@ public class ItemDto {
     final Long request;
     final LocalDateTime lastBooking;
     final LocalDateTime nextBooking;
+    final Integer commentCount;
+    final Double averageRating;
     Collection<CommentDto> comments;
 }
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the owner listing: an owned item with one of its comments, or with null comment columns if it has none.
+ */
+public interface ItemOwnerRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+
+    LocalDateTime getLastBooking();
+
+    LocalDateTime getNextBooking();
+
+    Long getCommentCount();
+
+    Long getRatingCount();
+
+    Double getAverageRating();
+
+    Long getCommentId();
+
+    String getCommentText();
+
+    Integer getCommentRating();
+
+    String getCommentAuthorName();
+
+    LocalDateTime getCommentCreated();
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@Builder
+public class ItemPhotoDto {
+    final Long id;
+
+    final Long itemId;
+
+    final String hash;
+
+    final String contentType;
+
+    final Long size;
+
+    final LocalDateTime created;
+}
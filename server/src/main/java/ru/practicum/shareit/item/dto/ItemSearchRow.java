@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * The properties of an item that go into a search index document, read without loading the item.
+ */
+public interface ItemSearchRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
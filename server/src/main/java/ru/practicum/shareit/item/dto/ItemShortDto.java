@@ -18,4 +18,8 @@ public class ItemShortDto {
     final Boolean available;
 
     final Long requestId;
+
+    final Double latitude;
+
+    final Double longitude;
 }
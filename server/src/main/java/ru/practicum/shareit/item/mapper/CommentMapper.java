@@ -16,6 +16,7 @@ public class CommentMapper {
     public static Comment toComment(CommentShortDto commentShortDto, User author, Item item) {
         return Comment.builder()
                 .text(commentShortDto.getText())
+                .rating(commentShortDto.getRating())
                 .author(author)
                 .item(item)
                 .build();
@@ -36,6 +37,7 @@ public class CommentMapper {
         return CommentDto.builder()
                 .id(comment.getId())
                 .text(comment.getText())
+                .rating(comment.getRating())
                 .authorName(comment.getAuthor().getName())
                 .created(comment.getCreated())
                 .build();
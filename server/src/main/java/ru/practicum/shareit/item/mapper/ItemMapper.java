@@ -1,24 +1,23 @@
 package ru.practicum.shareit.item.mapper;
 
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemForItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+import ru.practicum.shareit.item.dto.ItemOwnerRow;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
 import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemStats;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 @UtilityClass
 public class ItemMapper {
@@ -29,6 +28,20 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
+                .latitude(item.getLatitude())
+                .longitude(item.getLongitude())
+                .build();
+    }
+
+    public static ItemShortDto toItemDto(ItemSearchRow row) {
+        return ItemShortDto.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .available(row.getAvailable())
+                .requestId(row.getRequestId())
+                .latitude(row.getLatitude())
+                .longitude(row.getLongitude())
                 .build();
     }
 
@@ -40,52 +53,80 @@ public class ItemMapper {
         return itemShortDtos;
     }
 
-    public static ItemDto toItemDto(Item item, Collection<Comment> comments) {
+    public static ItemDto toItemDto(Item item, Collection<Comment> comments, ItemStats stats) {
         return ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .request(item.getRequest() != null ? item.getRequest().getId() : null)
+                .commentCount(stats != null ? stats.getCommentCount().intValue() : 0)
+                .averageRating(stats != null ? toAverageRating(stats.getRatingCount(), stats.getAverageRating()) : null)
                 .comments(CommentMapper.toCommentDto(comments))
                 .build();
     }
 
-    public static List<ItemDto> toItemOwnerDto(Iterable<Item> items, Collection<Comment> comments, Collection<Booking> bookings) {
+    /**
+     * Folds the rows of {@link ru.practicum.shareit.item.repository.ItemRepository#findOwnerRows} into one dto per
+     * item; the rows come ordered by item, so each item is finished as soon as the next one starts.
+     */
+    public static List<ItemDto> toItemOwnerDto(List<ItemOwnerRow> rows) {
         List<ItemDto> itemDtos = new ArrayList<>();
-        Map<Long, List<Comment>> commentsMap = comments.stream()
-                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
-        Map<Long, List<Booking>> bookingsMap = bookings.stream()
-                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
-        for (Item item : items) {
-            Optional<LocalDateTime> lastBooking = commentsMap.isEmpty() ? Optional.empty() : bookingsMap.get(item.getId()).stream()
-                    .map(Booking::getEnd)
-                    .filter(end -> end.isBefore(LocalDateTime.now()))
-                    .max(Comparator.naturalOrder());
-            Optional<LocalDateTime> nextBooking = bookingsMap.isEmpty() ? Optional.empty() : bookingsMap.get(item.getId()).stream()
-                    .map(Booking::getStart)
-                    .filter(start -> start.isAfter(LocalDateTime.now()))
-                    .min(Comparator.naturalOrder());
-            Collection<Comment> itemComments = commentsMap.get(item.getId());
-            itemDtos.add(ItemDto.builder()
-                    .id(item.getId())
-                    .name(item.getName())
-                    .description(item.getDescription())
-                    .available(item.getAvailable())
-                    .request(item.getRequest() != null ? item.getRequest().getId() : null)
-                    .lastBooking(lastBooking.orElse(null))
-                    .nextBooking(nextBooking.orElse(null))
-                    .comments(CommentMapper.toCommentDto(itemComments))
-                    .build());
+        ItemDto current = null;
+        for (ItemOwnerRow row : rows) {
+            if (current == null || !current.getId().equals(row.getId())) {
+                int commentCount = row.getCommentCount().intValue();
+                current = ItemDto.builder()
+                        .id(row.getId())
+                        .name(row.getName())
+                        .description(row.getDescription())
+                        .available(row.getAvailable())
+                        .request(row.getRequestId())
+                        .lastBooking(row.getLastBooking())
+                        .nextBooking(row.getNextBooking())
+                        .commentCount(commentCount)
+                        .averageRating(toAverageRating(row.getRatingCount(), row.getAverageRating()))
+                        .comments(new ArrayList<>(commentCount))
+                        .build();
+                itemDtos.add(current);
+            }
+            if (row.getCommentId() != null) {
+                current.getComments().add(CommentDto.builder()
+                        .id(row.getCommentId())
+                        .text(row.getCommentText())
+                        .rating(row.getCommentRating())
+                        .authorName(row.getCommentAuthorName())
+                        .created(row.getCommentCreated())
+                        .build());
+            }
         }
         return itemDtos;
     }
 
+    /**
+     * An item nobody has rated yet has no average rather than an average of zero.
+     */
+    public static Double toAverageRating(Long ratingCount, Double averageRating) {
+        return ratingCount == null || ratingCount == 0 ? null : averageRating;
+    }
+
     public static Item toItem(ItemShortDto itemShortDto, User owner, ItemRequest itemRequest) {
         return Item.builder()
                 .name(itemShortDto.getName())
                 .description(itemShortDto.getDescription())
                 .available(itemShortDto.getAvailable())
+                .latitude(itemShortDto.getLatitude())
+                .longitude(itemShortDto.getLongitude())
+                .owner(owner)
+                .request(itemRequest)
+                .build();
+    }
+
+    public static Item toItem(ItemImportRowDto itemImportRowDto, User owner, ItemRequest itemRequest) {
+        return Item.builder()
+                .name(itemImportRowDto.getName())
+                .description(itemImportRowDto.getDescription())
+                .available(itemImportRowDto.getAvailable())
                 .owner(owner)
                 .request(itemRequest)
                 .build();
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.mapper;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.item.dto.ItemPhotoDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemPhoto;
+
+import java.util.Collection;
+import java.util.List;
+
+@UtilityClass
+public class ItemPhotoMapper {
+    public static ItemPhotoDto toItemPhotoDto(ItemPhoto itemPhoto) {
+        return ItemPhotoDto.builder()
+                .id(itemPhoto.getId())
+                .itemId(itemPhoto.getItem().getId())
+                .hash(itemPhoto.getHash())
+                .contentType(itemPhoto.getContentType())
+                .size(itemPhoto.getSize())
+                .created(itemPhoto.getCreated())
+                .build();
+    }
+
+    public static List<ItemPhotoDto> toItemPhotoDto(Collection<ItemPhoto> itemPhotos) {
+        return itemPhotos.stream().map(ItemPhotoMapper::toItemPhotoDto).toList();
+    }
+
+    public static ItemPhoto toItemPhoto(Item item, String hash, String contentType, long size) {
+        return ItemPhoto.builder()
+                .item(item)
+                .hash(hash)
+                .contentType(contentType)
+                .size(size)
+                .build();
+    }
+}
@@ -0,0 +1,5 @@
+package ru.practicum.shareit.item.model;
+
+public enum AvailabilityStatus {
+    BUSY, FREE
+}
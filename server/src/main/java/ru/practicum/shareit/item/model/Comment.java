@@ -1,11 +1,13 @@
 package ru.practicum.shareit.item.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -36,6 +38,7 @@ public class Comment {
     Long id;
 
     String text;
+    Integer rating;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
@@ -45,6 +48,16 @@ public class Comment {
     @ToString.Exclude
     User author;
 
+    @Column(name = "owner_id")
+    Long ownerId;
+
     @CreationTimestamp
     LocalDateTime created;
+
+    @PrePersist
+    void initOwnerId() {
+        if (ownerId == null) {
+            ownerId = item.getOwner().getId();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The points within {@code radius} kilometres of a centre, with the latitude/longitude box around them. When the
+ * circle reaches a pole or crosses the antimeridian, the box spans every longitude.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Getter
+@ToString(onlyExplicitlyIncluded = true)
+public class GeoCircle {
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    static final String INVALID_CENTRE_MSG = "Центр поиска должен быть задан как широта,долгота: %s";
+
+    @ToString.Include
+    double latitude;
+
+    @ToString.Include
+    double longitude;
+
+    @ToString.Include
+    double radius;
+
+    double minLatitude;
+    double maxLatitude;
+    double minLongitude;
+    double maxLongitude;
+
+    public GeoCircle(double latitude, double longitude, double radius) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radius = radius;
+        double angle = radius / EARTH_RADIUS_KM;
+        double latitudeDelta = Math.toDegrees(angle);
+        minLatitude = Math.max(latitude - latitudeDelta, -90);
+        maxLatitude = Math.min(latitude + latitudeDelta, 90);
+        double longitudeDelta = minLatitude == -90 || maxLatitude == 90 ? 180
+                : Math.toDegrees(Math.asin(Math.sin(angle) / Math.cos(Math.toRadians(latitude))));
+        if (longitude - longitudeDelta < -180 || longitude + longitudeDelta > 180) {
+            minLongitude = -180;
+            maxLongitude = 180;
+        } else {
+            minLongitude = longitude - longitudeDelta;
+            maxLongitude = longitude + longitudeDelta;
+        }
+    }
+
+    /**
+     * Parses a centre given as {@code latitude,longitude}.
+     */
+    public static GeoCircle of(String centre, double radius) {
+        String[] coordinates = centre.split(",");
+        if (coordinates.length != 2) {
+            throw new IllegalArgumentException(String.format(INVALID_CENTRE_MSG, centre));
+        }
+        return new GeoCircle(Double.parseDouble(coordinates[0].trim()), Double.parseDouble(coordinates[1].trim()), radius);
+    }
+
+    /**
+     * Great-circle distance from the centre in kilometres, by the haversine formula.
+     */
+    public double distanceTo(double latitude, double longitude) {
+        double latitudeSin = Math.sin(Math.toRadians(latitude - this.latitude) / 2);
+        double longitudeSin = Math.sin(Math.toRadians(longitude - this.longitude) / 2);
+        double a = latitudeSin * latitudeSin
+                + Math.cos(Math.toRadians(this.latitude)) * Math.cos(Math.toRadians(latitude)) * longitudeSin * longitudeSin;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return distanceTo(latitude, longitude) <= radius;
+    }
+}
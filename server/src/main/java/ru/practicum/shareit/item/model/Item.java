@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,6 +20,8 @@ import lombok.experimental.FieldDefaults;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @NoArgsConstructor
 @AllArgsConstructor
@@ -48,4 +51,20 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     ItemRequest request;
+
+    Double latitude;
+
+    Double longitude;
+
+    @Column(name = "geo_cell")
+    Long geoCell;
+
+    @Version
+    Long version;
+
+    @Column(name = "last_booking_end", insertable = false, updatable = false)
+    LocalDateTime lastBookingEnd;
+
+    @Column(name = "next_booking_start", insertable = false, updatable = false)
+    LocalDateTime nextBookingStart;
 }
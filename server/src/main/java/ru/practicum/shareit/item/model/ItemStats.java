@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Comment and rating counters of an item, one row per item inserted along with it. The counters are only ever moved
+ * by {@link ru.practicum.shareit.item.repository.ItemStatsRepository} updates in the transaction adding a comment.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+@Entity
+@Table(name = "item_stats", schema = "public")
+public class ItemStats {
+    @Id
+    @Column(name = "item_id")
+    Long itemId;
+
+    @Column(name = "comment_count", nullable = false)
+    Long commentCount;
+
+    @Column(name = "rating_count", nullable = false)
+    Long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    Long ratingSum;
+
+    @Column(name = "average_rating", nullable = false)
+    Double averageRating;
+}
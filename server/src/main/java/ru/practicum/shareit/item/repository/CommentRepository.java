@@ -1,12 +1,12 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.Collection;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(attributePaths = "author")
     Collection<Comment> findAllByItemId(Long itemId);
-
-    Collection<Comment> findByItem_Owner_Id(Long ownerId);
 }
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@RequiredArgsConstructor
+public class ItemBatchRepositoryImpl implements ItemBatchRepository {
+    static final String INSERT_SQL = "insert into items(name, description, is_available, owner_id, request_id, " +
+            "latitude, longitude, geo_cell, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_STATS_SQL = "insert into item_stats(item_id) values (?)";
+
+    final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<Item> insertAll(List<Item> items) {
+        items.forEach(item -> item.setVersion(0L));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Item item = items.get(i);
+                        ps.setString(1, item.getName());
+                        ps.setString(2, item.getDescription());
+                        ps.setBoolean(3, item.getAvailable());
+                        ps.setLong(4, item.getOwner().getId());
+                        ps.setObject(5, item.getRequest() != null ? item.getRequest().getId() : null, Types.BIGINT);
+                        ps.setObject(6, item.getLatitude(), Types.DOUBLE);
+                        ps.setObject(7, item.getLongitude(), Types.DOUBLE);
+                        ps.setObject(8, item.getGeoCell(), Types.BIGINT);
+                        ps.setLong(9, item.getVersion());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        jdbcTemplate.batchUpdate(INSERT_STATS_SQL, items, items.size(), (ps, item) -> ps.setLong(1, item.getId()));
+        return items;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.ItemPhoto;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemPhotoRepository extends JpaRepository<ItemPhoto, Long> {
+    String ITEM_PHOTO_NOT_FOUND_MSG = "Фото %s вещи с id = %d не найдено";
+
+    Optional<ItemPhoto> findByItemIdAndHash(Long itemId, String hash);
+
+    List<ItemPhoto> findAllByItemIdOrderById(Long itemId);
+
+    default ItemPhoto getItemPhoto(Long itemId, String hash) {
+        return findByItemIdAndHash(itemId, hash)
+                .orElseThrow(() -> new NotFoundException(String.format(ITEM_PHOTO_NOT_FOUND_MSG, hash, itemId)));
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Photo blobs on the local filesystem under {@code root}, content-addressed by the hex SHA-256 of their bytes and
+ * fanned out by its first two characters: {@code root/ab/abcdef...}. A blob is written to {@code root/tmp} while its
+ * hash is computed and then moved into place, so equal uploads share one file and a half-written one is never
+ * served. Blobs are never removed.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Repository
+public class ItemPhotoStorage {
+    static final String HASH_ALGORITHM = "SHA-256";
+    static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final String PHOTO_TOO_LARGE_MSG = "Размер фото превышает %s";
+
+    final Path root;
+    final long maxSize;
+
+    public ItemPhotoStorage(@Value("${shareit.item.photos.root:photos}") Path root,
+                            @Value("${shareit.item.photos.max-size:10MB}") DataSize maxSize) {
+        this.root = root;
+        this.maxSize = maxSize.toBytes();
+    }
+
+    public String store(InputStream content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(root.resolve("tmp"));
+            temp = Files.createTempFile(root.resolve("tmp"), "upload", null);
+            try (InputStream in = new DigestInputStream(content, digest); OutputStream out = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long size = 0;
+                for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new BadRequestException(String.format(PHOTO_TOO_LARGE_MSG, DataSize.ofBytes(maxSize)));
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path blob = pathOf(hash);
+            if (!Files.exists(blob)) {
+                Files.createDirectories(blob.getParent());
+                Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    public long sizeOf(String hash) {
+        try {
+            return Files.size(pathOf(hash));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sends {@code count} bytes of the blob from {@code position} with {@link FileChannel#transferTo}, so they go
+     * from the file to the output without passing through a heap buffer of ours.
+     */
+    public void transferTo(String hash, long position, long count, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOf(hash), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long sent = 0;
+            while (sent < count) {
+                long transferred = channel.transferTo(position + sent, count - sent, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                sent += transferred;
+            }
+        }
+    }
+
+    private Path pathOf(String hash) {
+        if (!HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Not a photo hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+            // an orphaned temp file only takes space
+        }
+    }
+}
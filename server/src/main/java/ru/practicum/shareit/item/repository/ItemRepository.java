@@ -1,23 +1,131 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemBookingCount;
+import ru.practicum.shareit.item.dto.ItemOwnerRow;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredicateExecutor<Item> {
+public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredicateExecutor<Item>, ItemBatchRepository {
     String ITEM_NOT_FOUND_MSG = "Вещь с id = %d не найдена";
+    String SET_BOOKING_POINTERS = "update Item as i " +
+            "set i.lastBookingEnd = (select max(b.end) from Booking as b " +
+            "                        where b.item.id = i.id and b.status = 'APPROVED' and b.phase = 'ENDED'), " +
+            "    i.nextBookingStart = (select min(b.start) from Booking as b " +
+            "                          where b.item.id = i.id and b.status = 'APPROVED' and b.phase = 'UPCOMING') ";
 
-    List<Item> findAllByOwnerId(Long ownerId);
+    /**
+     * Besides the item properties, {@code pageable} may sort by the {@link ru.practicum.shareit.item.model.ItemStats}
+     * properties of {@code s}.
+     */
+    @Query("select i.id from Item as i " +
+            "left join ItemStats as s on s.itemId = i.id " +
+            "where i.owner.id = ?1")
+    List<Long> findIdsByOwnerId(Long ownerId, Pageable pageable);
+
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available, " +
+            "       i.request.id as requestId, i.lastBookingEnd as lastBooking, i.nextBookingStart as nextBooking, " +
+            "       coalesce(s.commentCount, 0) as commentCount, s.ratingCount as ratingCount, s.averageRating as averageRating, " +
+            "       c.id as commentId, c.text as commentText, c.rating as commentRating, a.name as commentAuthorName, " +
+            "       c.created as commentCreated " +
+            "from Item as i " +
+            "left join ItemStats as s on s.itemId = i.id " +
+            "left join Comment as c on c.item.id = i.id and c.ownerId = ?1 " +
+            "left join c.author as a " +
+            "where i.owner.id = ?1 and i.id in ?2 " +
+            "order by i.id, c.created, c.id")
+    List<ItemOwnerRow> findOwnerRows(Long ownerId, Collection<Long> itemIds);
 
     boolean existsItemsByOwnerId(Long ownerId);
 
+    @Query("select b.item.id as itemId, count(b.id) as bookings from Booking as b " +
+            "where b.status = 'APPROVED' " +
+            "group by b.item.id")
+    List<ItemBookingCount> countApprovedBookingsPerItem();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available, " +
+            "       i.request.id as requestId, i.latitude as latitude, i.longitude as longitude " +
+            "from Item as i")
+    Stream<ItemSearchRow> streamSearchRows();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Item> streamByOwnerIdOrderById(Long ownerId);
+
     List<Item> findAllByRequestId(Long requestId);
 
     List<Item> findAllByRequest_RequestorId(Long requestorId);
 
+    /**
+     * Ranked full-text search over available items; {@code query} is a {@code to_tsquery} expression and {@code sort}
+     * an {@link ru.practicum.shareit.item.model.ItemSort} name ranked ahead of relevance. PostgreSQL only, relies on
+     * the {@code search_vector} column maintained by a trigger from schema-postgresql.sql.
+     */
+    @Query(value = "select i.* " +
+            "from items as i " +
+            "cross join to_tsquery('simple', ?1) as q " +
+            "left join item_stats as s on s.item_id = i.id " +
+            "where i.is_available and i.search_vector @@ q " +
+            "order by case when ?4 = 'RATING' then s.average_rating end desc nulls last, " +
+            "         case when ?4 = 'COMMENTS' then s.comment_count end desc nulls last, " +
+            "         ts_rank(i.search_vector, q) desc, i.id " +
+            "offset ?2 limit ?3", nativeQuery = true)
+    List<Item> searchAvailable(String query, long offset, int limit, String sort);
+
+    /**
+     * The ids among {@code itemIds} whose {@code search_vector} matches the {@code to_tsquery} expression
+     * {@code query}. PostgreSQL only, like {@link #searchAvailable}.
+     */
+    @Query(value = "select i.id from items as i " +
+            "where i.id in ?1 and i.search_vector @@ to_tsquery('simple', ?2)", nativeQuery = true)
+    List<Long> findIdsMatching(Collection<Long> itemIds, String query);
+
+    /**
+     * Substring search over available items for the orders the index and the full-text query do not cover;
+     * {@code pageable} may sort by the {@link ru.practicum.shareit.item.model.ItemStats} properties of {@code s}.
+     */
+    @Query("select i from Item as i " +
+            "left join ItemStats as s on s.itemId = i.id " +
+            "where i.available = true " +
+            "  and (lower(i.name) like concat('%', ?1, '%') or lower(i.description) like concat('%', ?1, '%'))")
+    List<Item> searchAvailableContaining(String text, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query(SET_BOOKING_POINTERS +
+            "where i.id in ?1")
+    int refreshBookingPointers(Collection<Long> itemIds);
+
+    @Modifying
+    @Transactional
+    @Query(SET_BOOKING_POINTERS +
+            "where i.id in (select b.item.id from Booking as b where b.id in ?1)")
+    int refreshBookingPointersOfBookings(Collection<Long> bookingIds);
+
+    @Modifying
+    @Transactional
+    @Query(SET_BOOKING_POINTERS +
+            "where i.nextBookingStart <= ?1 " +
+            "   or exists (select b.id from Booking as b " +
+            "              where b.item.id = i.id and b.status = 'APPROVED' " +
+            "                and ((b.phase = 'ENDED' and (i.lastBookingEnd is null or b.end > i.lastBookingEnd)) " +
+            "                  or (b.phase = 'UPCOMING' and (i.nextBookingStart is null or b.start < i.nextBookingStart))))")
+    int refreshStaleBookingPointers(LocalDateTime now);
+
     default Item getItemById(Long itemId) {
         return findById(itemId)
                 .orElseThrow(() -> new NotFoundException(String.format(ITEM_NOT_FOUND_MSG, itemId)));
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.ItemStats;
+
+public interface ItemStatsRepository extends JpaRepository<ItemStats, Long> {
+    @Modifying
+    @Query(value = "insert into item_stats(item_id) values (?1)", nativeQuery = true)
+    void createFor(Long itemId);
+
+    @Modifying
+    @Query("update ItemStats as s " +
+            "set s.commentCount = s.commentCount + 1 " +
+            "where s.itemId = ?1")
+    int addComment(Long itemId);
+
+    @Modifying
+    @Query("update ItemStats as s " +
+            "set s.commentCount = s.commentCount + 1, " +
+            "    s.ratingCount = s.ratingCount + 1, " +
+            "    s.ratingSum = s.ratingSum + ?2, " +
+            "    s.averageRating = cast(s.ratingSum + ?2 as Double) / (s.ratingCount + 1) " +
+            "where s.itemId = ?1")
+    int addRatedComment(Long itemId, long rating);
+}
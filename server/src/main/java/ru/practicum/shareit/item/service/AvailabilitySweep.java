@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.item.model.AvailabilityStatus;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Turns booked periods, fed in order of their start, into alternating BUSY and FREE slots covering [from, to].
+ * Overlapping periods are merged into one BUSY slot; nothing is kept but the slot currently being merged.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class AvailabilitySweep {
+    final LocalDateTime from;
+    final LocalDateTime to;
+    final Consumer<AvailabilitySlotDto> action;
+
+    LocalDateTime cursor;
+    LocalDateTime busyStart;
+    LocalDateTime busyEnd;
+
+    AvailabilitySweep(LocalDateTime from, LocalDateTime to, Consumer<AvailabilitySlotDto> action) {
+        this.from = from;
+        this.to = to;
+        this.action = action;
+        this.cursor = from;
+    }
+
+    void accept(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime clippedStart = start.isBefore(from) ? from : start;
+        LocalDateTime clippedEnd = end.isAfter(to) ? to : end;
+        if (busyEnd != null && !clippedStart.isAfter(busyEnd)) {
+            if (clippedEnd.isAfter(busyEnd)) {
+                busyEnd = clippedEnd;
+            }
+            return;
+        }
+        emitBusy();
+        if (clippedStart.isAfter(cursor)) {
+            emit(cursor, clippedStart, AvailabilityStatus.FREE);
+        }
+        busyStart = clippedStart;
+        busyEnd = clippedEnd;
+    }
+
+    void finish() {
+        emitBusy();
+        if (cursor.isBefore(to)) {
+            emit(cursor, to, AvailabilityStatus.FREE);
+        }
+    }
+
+    private void emitBusy() {
+        if (busyEnd != null) {
+            emit(busyStart, busyEnd, AvailabilityStatus.BUSY);
+            cursor = busyEnd;
+            busyStart = null;
+            busyEnd = null;
+        }
+    }
+
+    private void emit(LocalDateTime start, LocalDateTime end, AvailabilityStatus status) {
+        action.accept(AvailabilitySlotDto.builder()
+                .start(start)
+                .end(end)
+                .status(status.name())
+                .build());
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.item.model.GeoCircle;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Geohashes kept as numbers: {@link #BITS} bits of alternating longitude and latitude bisections, longitude first.
+ * A geohash of {@code precision} characters is the top {@code 5 * precision} bits, so the points of one such cell
+ * form a contiguous range of values and the cell is a range scan over {@code items.geo_cell}.
+ */
+@UtilityClass
+class GeoHash {
+    static final int MAX_PRECISION = 12;
+    static final int BITS = 5 * MAX_PRECISION;
+
+    static long encode(double latitude, double longitude) {
+        double minLatitude = -90;
+        double maxLatitude = 90;
+        double minLongitude = -180;
+        double maxLongitude = 180;
+        long hash = 0;
+        for (int bit = 0; bit < BITS; bit++) {
+            hash <<= 1;
+            if (bit % 2 == 0) {
+                double middle = (minLongitude + maxLongitude) / 2;
+                if (longitude >= middle) {
+                    hash |= 1;
+                    minLongitude = middle;
+                } else {
+                    maxLongitude = middle;
+                }
+            } else {
+                double middle = (minLatitude + maxLatitude) / 2;
+                if (latitude >= middle) {
+                    hash |= 1;
+                    minLatitude = middle;
+                } else {
+                    maxLatitude = middle;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * The finest precision whose cells are at least as large as the bounding box of {@code area}, so that the box
+     * overlaps no more than two cells along each axis.
+     */
+    static int coveringPrecision(GeoCircle area) {
+        int precision = 1;
+        while (precision < MAX_PRECISION
+                && cellHeight(precision + 1) >= area.getMaxLatitude() - area.getMinLatitude()
+                && cellWidth(precision + 1) >= area.getMaxLongitude() - area.getMinLongitude()) {
+            precision++;
+        }
+        return precision;
+    }
+
+    /**
+     * Cells of {@code precision} overlapping the bounding box of {@code area}, as their top bits.
+     */
+    static Set<Long> cover(GeoCircle area, int precision) {
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        int shift = BITS - 5 * precision;
+        long lastRow = Math.round(180 / height) - 1;
+        long lastColumn = Math.round(360 / width) - 1;
+        Set<Long> cells = new TreeSet<>();
+        for (long row = index(area.getMinLatitude() + 90, height, lastRow); row <= index(area.getMaxLatitude() + 90, height, lastRow); row++) {
+            for (long column = index(area.getMinLongitude() + 180, width, lastColumn); column <= index(area.getMaxLongitude() + 180, width, lastColumn); column++) {
+                cells.add(encode(-90 + (row + 0.5) * height, -180 + (column + 0.5) * width) >>> shift);
+            }
+        }
+        return cells;
+    }
+
+    static long firstIn(long cell, int precision) {
+        return cell << (BITS - 5 * precision);
+    }
+
+    static long lastIn(long cell, int precision) {
+        return ((cell + 1) << (BITS - 5 * precision)) - 1;
+    }
+
+    static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    static double cellWidth(int precision) {
+        return 360.0 / (1L << (5 * precision - 5 * precision / 2));
+    }
+
+    private static long index(double offset, double size, long last) {
+        return Math.min((long) Math.floor(offset / size), last);
+    }
+}
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Radix trie over case-folded item names. Every node keeps the {@code topK} highest ranked items whose names start
+ * with the node's prefix, by popularity and then by name, so a suggestion is one walk down the prefix. Adding or
+ * removing an item re-ranks only the nodes on the path to its name. Not thread-safe.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ItemNameTrie {
+    static final Comparator<Entry> RANKING = Comparator.comparingLong((Entry entry) -> entry.popularity).reversed()
+            .thenComparing(entry -> entry.key)
+            .thenComparingLong(entry -> entry.id);
+    static final Entry[] NO_ENTRIES = new Entry[0];
+
+    final int topK;
+    final Node root = new Node("");
+    final Map<Long, Entry> entries = new HashMap<>();
+
+    ItemNameTrie(int topK) {
+        this.topK = topK;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void put(ItemShortDto item, long popularity) {
+        remove(item.getId());
+        Entry entry = new Entry(item.getId(), item.getName().toLowerCase(Locale.ROOT), popularity, item);
+        String key = entry.key;
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+            } else {
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children.put(child.label.charAt(0), child);
+                    node.children.put(middle.label.charAt(0), middle);
+                    child = middle;
+                }
+            }
+            node = child;
+            path.add(node);
+            i += node.label.length();
+        }
+        node.own.add(entry);
+        entries.put(entry.id, entry);
+        rerank(path);
+    }
+
+    void remove(Long itemId) {
+        Entry entry = entries.remove(itemId);
+        if (entry == null) {
+            return;
+        }
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < entry.key.length(); i += node.label.length()) {
+            node = node.children.get(entry.key.charAt(i));
+            path.add(node);
+        }
+        node.own.remove(entry);
+        // keeps the trie compact: nodes left without items lose their place, and a pass-through node takes its child in
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            if (!current.own.isEmpty()) {
+                break;
+            }
+            if (current.children.isEmpty()) {
+                path.get(i - 1).children.remove(current.label.charAt(0));
+            } else if (current.children.size() == 1) {
+                Node child = current.children.values().iterator().next();
+                current.label = current.label + child.label;
+                current.children = child.children;
+                current.own = child.own;
+                current.top = child.top;
+            }
+        }
+        rerank(path);
+    }
+
+    List<ItemShortDto> suggest(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (i + common < key.length() && common < child.label.length()) {
+                return List.of();
+            }
+            node = child;
+            i += common;
+        }
+        List<ItemShortDto> found = new ArrayList<>();
+        for (int j = 0; j < node.top.length && j < limit; j++) {
+            found.add(node.top[j].item);
+        }
+        return found;
+    }
+
+    private void rerank(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            List<Entry> candidates = new ArrayList<>(node.own);
+            for (Node child : node.children.values()) {
+                candidates.addAll(List.of(child.top));
+            }
+            candidates.sort(RANKING);
+            node.top = candidates.subList(0, Math.min(topK, candidates.size())).toArray(NO_ENTRIES);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int length = 0;
+        while (length < label.length() && from + length < key.length()
+                && label.charAt(length) == key.charAt(from + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @RequiredArgsConstructor
+    private static class Entry {
+        final Long id;
+        final String key;
+        final long popularity;
+        final ItemShortDto item;
+    }
+
+    /**
+     * {@code label} is the part of the name on the edge leading here; children are keyed by the first char of theirs.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class Node {
+        String label;
+        Map<Character, Node> children = new HashMap<>();
+        List<Entry> own = new ArrayList<>(1);
+        Entry[] top = NO_ENTRIES;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
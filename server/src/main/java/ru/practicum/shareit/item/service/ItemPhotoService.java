@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.dto.ItemPhotoDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+
+public interface ItemPhotoService {
+    ItemPhotoDto upload(Long userId, Long itemId, String contentType, InputStream content);
+
+    Collection<ItemPhotoDto> findPhotos(Long itemId);
+
+    ItemPhotoDto findPhoto(Long itemId, String hash);
+
+    void transferPhoto(String hash, long position, long count, OutputStream outputStream) throws IOException;
+}
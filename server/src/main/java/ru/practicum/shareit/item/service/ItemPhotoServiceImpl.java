@@ -0,0 +1,73 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemPhotoDto;
+import ru.practicum.shareit.item.mapper.ItemPhotoMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemPhoto;
+import ru.practicum.shareit.item.repository.ItemPhotoRepository;
+import ru.practicum.shareit.item.repository.ItemPhotoStorage;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Service
+@RequiredArgsConstructor
+public class ItemPhotoServiceImpl implements ItemPhotoService {
+    final ItemRepository itemRepository;
+    final UserRepository userRepository;
+    final ItemPhotoRepository itemPhotoRepository;
+    final ItemPhotoStorage itemPhotoStorage;
+
+    /**
+     * The upload is streamed to the storage outside of any transaction, so a slow client holds no connection; the
+     * same bytes uploaded again for the item return the photo already recorded, even when both uploads run at once.
+     */
+    @Override
+    public ItemPhotoDto upload(Long userId, Long itemId, String contentType, InputStream content) {
+        userRepository.getUserById(userId);
+        Item item = itemRepository.getItemById(itemId);
+        if (!item.getOwner().getId().equals(userId)) {
+            throw new NotFoundException(String.format(ItemServiceImpl.OWNER_NOT_FOUND_MSG, itemId, userId));
+        }
+        String hash = itemPhotoStorage.store(content);
+        ItemPhoto itemPhoto = itemPhotoRepository.findByItemIdAndHash(itemId, hash)
+                .orElseGet(() -> record(item, hash, contentType));
+        return ItemPhotoMapper.toItemPhotoDto(itemPhoto);
+    }
+
+    private ItemPhoto record(Item item, String hash, String contentType) {
+        try {
+            return itemPhotoRepository.save(ItemPhotoMapper.toItemPhoto(item, hash, contentType, itemPhotoStorage.sizeOf(hash)));
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent upload of the same bytes recorded the photo first
+            return itemPhotoRepository.findByItemIdAndHash(item.getId(), hash).orElseThrow(() -> e);
+        }
+    }
+
+    @Override
+    public Collection<ItemPhotoDto> findPhotos(Long itemId) {
+        itemRepository.getItemById(itemId);
+        return ItemPhotoMapper.toItemPhotoDto(itemPhotoRepository.findAllByItemIdOrderById(itemId));
+    }
+
+    @Override
+    public ItemPhotoDto findPhoto(Long itemId, String hash) {
+        return ItemPhotoMapper.toItemPhotoDto(itemPhotoRepository.getItemPhoto(itemId, hash));
+    }
+
+    @Override
+    public void transferPhoto(String hash, long position, long count, OutputStream outputStream) throws IOException {
+        itemPhotoStorage.transferTo(hash, position, count, outputStream);
+    }
+}
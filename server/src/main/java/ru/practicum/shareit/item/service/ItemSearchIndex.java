@@ -0,0 +1,380 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over the case-folded words of item names and descriptions. Every word maps to a
+ * {@link PostingList} of the ids of the items containing it and a bitmap holds the available items, so a search
+ * walks the shortest list of matching ids and probes the others. Answers {@link ItemService#searchItems} with
+ * word-prefix matching, in id order.
+ * The names of the available items also go into an {@link ItemNameTrie} ranked by approved bookings, which answers
+ * {@link ItemService#suggestItems}.
+ * <p>
+ * Kept current by {@link #put(Item)} after every save and rebuilt from a stream of {@link ItemSearchRow}s every
+ * {@code reconcile} period to pick up changes made past the service. Until loaded {@link #isReady()} is false.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    static final int SUGGEST_TOP_K = 10;
+
+    final ItemRepository itemRepository;
+
+    final TransactionTemplate transactionTemplate;
+
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${shareit.item.search-index.enabled:true}")
+    boolean enabled;
+
+    Postings postings = new Postings();
+    List<ItemShortDto> putsDuringRebuild;
+    volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${shareit.item.search-index.reconcile:PT10M}",
+            fixedDelayString = "${shareit.item.search-index.reconcile:PT10M}")
+    public void reconcile() {
+        if (ready) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<ItemShortDto> search(String text, int offset, int limit) {
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<PostingList> matches = terms.stream()
+                    .map(postings::withPrefix)
+                    .sorted(Comparator.comparingInt(PostingList::size))
+                    .toList();
+            List<PostingList> others = matches.subList(1, matches.size());
+            return matches.get(0).stream()
+                    .filter(id -> postings.available.get(id) && others.stream().allMatch(posting -> posting.contains(id)))
+                    .skip(offset)
+                    .limit(limit)
+                    .mapToObj(postings.documents::get)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The ids among {@code itemIds} of the items holding a word that starts with each word of {@code text}, whether
+     * available or not.
+     */
+    public List<Long> retainMatching(String text, Collection<Long> itemIds) {
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<PostingList> matches = terms.stream().map(postings::withPrefix).toList();
+            return itemIds.stream()
+                    .filter(itemId -> matches.stream().allMatch(posting -> posting.contains(Math.toIntExact(itemId))))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Item item) {
+        ItemShortDto document = ItemMapper.toItemDto(item);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(document);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(document);
+            }
+        });
+    }
+
+    public List<ItemShortDto> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return postings.names.suggest(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        return TERM_SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    private void apply(ItemShortDto document) {
+        lock.writeLock().lock();
+        try {
+            postings.put(document);
+            if (putsDuringRebuild != null) {
+                putsDuringRebuild.add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        lock.writeLock().lock();
+        try {
+            putsDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Postings rebuilt = new Postings();
+        try {
+            itemRepository.countApprovedBookingsPerItem()
+                    .forEach(count -> rebuilt.popularity.put(Math.toIntExact(count.getItemId()), count.getBookings()));
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ItemSearchRow> rows = itemRepository.streamSearchRows()) {
+                    rows.forEach(row -> rebuilt.put(ItemMapper.toItemDto(row)));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                putsDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            // saves committed while the items were read may be missing from the snapshot, so they go on top
+            putsDuringRebuild.forEach(rebuilt::put);
+            putsDuringRebuild = null;
+            postings = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        log.info("Item search index built: {} items, {} terms, {} suggested names", rebuilt.documents.size(),
+                rebuilt.terms.size(), rebuilt.names.size());
+    }
+
+    /**
+     * Item ids serve as positions in {@code available}, which is as long as the largest id at one bit per id;
+     * {@code maxId} tells the posting lists when a bitmap of their own would be the smaller form.
+     */
+    private static class Postings {
+        final NavigableMap<String, PostingList> terms = new TreeMap<>();
+        final Map<Integer, ItemShortDto> documents = new HashMap<>();
+        final Map<Integer, String[]> termsByItem = new HashMap<>();
+        final BitSet available = new BitSet();
+        final Map<Integer, Long> popularity = new HashMap<>();
+        final ItemNameTrie names = new ItemNameTrie(SUGGEST_TOP_K);
+        int maxId;
+
+        void put(ItemShortDto document) {
+            int id = Math.toIntExact(document.getId());
+            maxId = Math.max(maxId, id);
+            String[] oldTerms = termsByItem.remove(id);
+            if (oldTerms != null) {
+                for (String term : oldTerms) {
+                    PostingList items = terms.get(term);
+                    items.remove(id, maxId);
+                    if (items.size() == 0) {
+                        terms.remove(term);
+                    }
+                }
+            }
+            String[] newTerms = tokenize(document.getName() + " " + Objects.requireNonNullElse(document.getDescription(), "")).stream()
+                    .distinct()
+                    .toArray(String[]::new);
+            for (String term : newTerms) {
+                terms.computeIfAbsent(term, t -> new PostingList()).add(id, maxId);
+            }
+            termsByItem.put(id, newTerms);
+            documents.put(id, document);
+            available.set(id, Boolean.TRUE.equals(document.getAvailable()));
+            if (available.get(id)) {
+                names.put(document, popularity.getOrDefault(id, 0L));
+            } else {
+                names.remove(document.getId());
+            }
+        }
+
+        PostingList withPrefix(String prefix) {
+            return PostingList.union(terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values(), maxId);
+        }
+    }
+
+    /**
+     * Ids of the items holding a term, ascending. Kept as a sorted {@code int[]} while that is smaller than a bitmap
+     * up to the largest id, that is while the term is in fewer than one item in {@link Integer#SIZE}, and as a
+     * {@link BitSet} past that; it goes back to an array once it shrinks to half that share.
+     */
+    private static final class PostingList {
+        static final int MIN_DENSE_SIZE = 64;
+
+        int[] ids;
+        BitSet dense;
+        int size;
+
+        PostingList() {
+            this(new int[4], 0);
+        }
+
+        PostingList(int[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+
+        PostingList(BitSet dense) {
+            this.dense = dense;
+            this.size = dense.cardinality();
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(int id) {
+            return dense != null ? dense.get(id) : Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        IntStream stream() {
+            return dense != null ? dense.stream() : Arrays.stream(ids, 0, size);
+        }
+
+        void add(int id, int maxId) {
+            if (dense != null) {
+                if (!dense.get(id)) {
+                    dense.set(id);
+                    size++;
+                }
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+            if (size >= MIN_DENSE_SIZE && size > maxId / Integer.SIZE) {
+                BitSet bits = new BitSet(maxId + 1);
+                stream().forEach(bits::set);
+                dense = bits;
+                ids = null;
+            }
+        }
+
+        void remove(int id, int maxId) {
+            if (dense != null) {
+                if (dense.get(id)) {
+                    dense.clear(id);
+                    size--;
+                }
+                if (size < maxId / (2 * Integer.SIZE)) {
+                    ids = dense.stream().toArray();
+                    dense = null;
+                }
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+
+        /**
+         * A single list is returned as is. Several short ones are merged into a new sorted array, and once any of
+         * them is a bitmap or together they would be denser than the threshold, they are OR-ed into a bitmap.
+         */
+        static PostingList union(Collection<PostingList> lists, int maxId) {
+            if (lists.size() == 1) {
+                return lists.iterator().next();
+            }
+            long total = lists.stream().mapToLong(PostingList::size).sum();
+            if (total > maxId / Integer.SIZE || lists.stream().anyMatch(list -> list.dense != null)) {
+                BitSet union = new BitSet(maxId + 1);
+                for (PostingList list : lists) {
+                    if (list.dense != null) {
+                        union.or(list.dense);
+                    } else {
+                        list.stream().forEach(union::set);
+                    }
+                }
+                return new PostingList(union);
+            }
+            int[] ids = new int[(int) total];
+            int merged = 0;
+            for (PostingList list : lists) {
+                System.arraycopy(list.ids, 0, ids, merged, list.size);
+                merged += list.size;
+            }
+            Arrays.sort(ids);
+            int distinct = 0;
+            for (int i = 0; i < merged; i++) {
+                if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                    ids[distinct++] = ids[i];
+                }
+            }
+            return new PostingList(ids, distinct);
+        }
+    }
+}
@@ -1,18 +1,30 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.model.GeoCircle;
+import ru.practicum.shareit.item.model.ItemSort;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Consumer;
 
 public interface ItemService {
-    Collection<ItemDto> findAllItemsByOwnerId(Long ownerId);
+    Collection<ItemDto> findAllItemsByOwnerId(Long ownerId, Integer from, Integer size, ItemSort sort);
 
     ItemDto findItemById(Long itemId);
 
-    Collection<ItemShortDto> searchItems(String text);
+    Collection<ItemShortDto> searchItems(String text, GeoCircle near, Integer from, Integer size, ItemSort sort);
+
+    Collection<ItemShortDto> suggestItems(String prefix, Integer size);
+
+    ItemImportResultDto importItems(Long userId, Iterator<ItemImportRowDto> rows);
 
     ItemShortDto create(Long userId, ItemShortDto newItemShortDto);
 
@@ -20,4 +32,12 @@ public interface ItemService {
 
     CommentDto addComment(Long userId, Long itemId, CommentShortDto commentShortDto);
 
+    void checkAvailabilityPeriod(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    void checkOwnerExists(Long ownerId);
+
+    void exportItems(Long ownerId, Consumer<ItemShortDto> action);
+
+    void findAvailability(Long itemId, LocalDateTime from, LocalDateTime to, Consumer<AvailabilitySlotDto> action);
+
 }
@@ -1,33 +1,68 @@
 package ru.practicum.shareit.item.service;
 
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.model.Booking;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingPeriod;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.GeoCircle;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSort;
+import ru.practicum.shareit.item.model.ItemStats;
 import ru.practicum.shareit.item.model.QItem;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemStatsRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Service
@@ -36,64 +71,379 @@ public class ItemServiceImpl implements ItemService {
     final ItemRepository itemRepository;
     final UserRepository userRepository;
     final CommentRepository commentRepository;
+    final ItemStatsRepository itemStatsRepository;
     final ItemRequestRepository itemRequestRepository;
 
     static final String OWNER_NOT_FOUND_MSG = "Вещь с id = %d обновляется пользователем с id = %d, не являющимся владельцем";
     static final String COMMENT_NOT_ALLOWED_MSG = "Оставлять комментарий можно только бравшему вещь в аренду";
+    static final String INCOMPLETE_LOCATION_MSG = "Широта и долгота вещи задаются только вместе";
+    static final String INVALID_PERIOD_MSG = "Начало периода %s должно быть раньше его окончания %s";
+    static final String ITEMS_CACHE = "items";
+    static final String SEARCH_CACHE = "itemSearch";
+    static final int EXPORT_CLEAR_INTERVAL = 500;
+    static final Sort ID_ORDER = Sort.by("id");
+    static final Sort RATING_ORDER = Sort.by(Sort.Order.desc("s.averageRating"), Sort.Order.desc("s.ratingCount"), Sort.Order.asc("id"));
+    static final Sort COMMENTS_ORDER = Sort.by(Sort.Order.desc("s.commentCount"), Sort.Order.asc("id"));
+    static final Sort SUGGEST_ORDER = Sort.by("name", "id");
     final BookingRepository bookingRepository;
+    final ItemSearchIndex itemSearchIndex;
+    final CacheManager cacheManager;
+    final EntityManager entityManager;
+    final AtomicLong searchGeneration = new AtomicLong();
+
+    @Value("${shareit.item.search.full-text:true}")
+    boolean fullTextSearch;
+
+    @Value("${shareit.item.search.near-candidates:10000}")
+    int nearCandidates;
+
+    @Value("${shareit.item.import.batch-size:500}")
+    int importBatchSize;
 
     @Override
-    public Collection<ItemDto> findAllItemsByOwnerId(Long ownerId) {
+    public Collection<ItemDto> findAllItemsByOwnerId(Long ownerId, Integer from, Integer size, ItemSort sort) {
         userRepository.getUserById(ownerId);
-        Collection<Item> items = itemRepository.findAllByOwnerId(ownerId);
-        Collection<Comment> comments = commentRepository.findByItem_Owner_Id(ownerId);
-        Collection<Booking> bookings = bookingRepository.findByItem_Owner_Id(ownerId);
-        return ItemMapper.toItemOwnerDto(items, comments, bookings);
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(ownerId, PageRequest.of(from > 0 ? from / size : 0, size, toSort(sort)));
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ItemDto> itemDtos = ItemMapper.toItemOwnerDto(itemRepository.findOwnerRows(ownerId, itemIds)).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        return itemIds.stream().map(itemDtos::get).toList();
     }
 
     @Override
+    @Cacheable(ITEMS_CACHE)
     public ItemDto findItemById(Long itemId) {
         Item item = itemRepository.getItemById(itemId);
         Collection<Comment> comments = commentRepository.findAllByItemId(itemId);
-        return ItemMapper.toItemDto(item, comments);
+        return ItemMapper.toItemDto(item, comments, itemStatsRepository.findById(itemId).orElse(null));
     }
 
+    /**
+     * Text searches in id order are answered by the in-memory index, which is cheaper than a cache lookup and always
+     * current, so only what the database answers is cached: per normalised text, area and page under the current
+     * {@link #searchGeneration}. Any write that can change a result moves the generation on, and entries of older
+     * generations are left to be evicted.
+     */
     @Override
-    public Collection<ItemShortDto> searchItems(String text) {
-        BooleanExpression containsNameOrDescription = QItem.item.name.containsIgnoreCase(text).or(QItem.item.description.containsIgnoreCase(text));
+    public Collection<ItemShortDto> searchItems(String text, GeoCircle near, Integer from, Integer size, ItemSort sort) {
+        String normalisedText = text.trim().toLowerCase(Locale.ROOT);
+        if (normalisedText.isEmpty() && near == null) {
+            return Collections.emptySet();
+        }
+        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size, toSort(sort));
+        if (near == null && sort == ItemSort.DEFAULT && itemSearchIndex.isReady()) {
+            return itemSearchIndex.search(normalisedText, (int) page.getOffset(), page.getPageSize());
+        }
+        String key = searchGeneration.get() + ":" + sort + ":" + near + ":" + page.getPageNumber() + ":" + page.getPageSize()
+                + ":" + normalisedText;
+        return Objects.requireNonNull(cacheManager.getCache(SEARCH_CACHE)).get(key, () -> near == null
+                ? findItems(normalisedText, page, sort) : findItemsNear(normalisedText, near, page, sort));
+    }
+
+    /**
+     * The in-memory index only knows the id order, so results sorted by the item stats, and any results while it is
+     * not loaded, come from the database.
+     */
+    private Collection<ItemShortDto> findItems(String text, PageRequest page, ItemSort sort) {
+        if (fullTextSearch) {
+            String query = toPrefixQuery(text);
+            return query.isEmpty() ? Collections.emptySet()
+                    : ItemMapper.toItemDto(itemRepository.searchAvailable(query, page.getOffset(), page.getPageSize(), sort.name()));
+        }
+        if (sort != ItemSort.DEFAULT) {
+            return ItemMapper.toItemDto(itemRepository.searchAvailableContaining(text, page));
+        }
         BooleanExpression isAvailable = QItem.item.available.isTrue();
-        return text.isEmpty() ? Collections.emptySet() : ItemMapper.toItemDto(itemRepository.findAll(isAvailable.and(containsNameOrDescription)));
+        return ItemMapper.toItemDto(itemRepository.findAll(isAvailable.and(containsText(text)), page).getContent());
+    }
+
+    /**
+     * Candidates are the available items both in the geohash cells covering the bounding box of {@code near} and in
+     * the box itself, read as id and coordinates only, at most {@code nearCandidates} of them; the exact distance
+     * then drops the corners of the box and the text is matched on what is left. Results go nearest first, or by the
+     * item stats and then nearest first, and only the items of the requested page are loaded.
+     */
+    private Collection<ItemShortDto> findItemsNear(String text, GeoCircle near, PageRequest page, ItemSort sort) {
+        int precision = GeoHash.coveringPrecision(near);
+        BooleanExpression inCells = Expressions.anyOf(GeoHash.cover(near, precision).stream()
+                .map(cell -> QItem.item.geoCell.between(GeoHash.firstIn(cell, precision), GeoHash.lastIn(cell, precision)))
+                .toArray(BooleanExpression[]::new));
+        BooleanExpression predicate = QItem.item.available.isTrue()
+                .and(inCells)
+                .and(QItem.item.latitude.between(near.getMinLatitude(), near.getMaxLatitude()))
+                .and(QItem.item.longitude.between(near.getMinLongitude(), near.getMaxLongitude()));
+        Map<Long, Double> distances = new HashMap<>();
+        for (Tuple candidate : new JPAQueryFactory(entityManager)
+                .select(QItem.item.id, QItem.item.latitude, QItem.item.longitude)
+                .from(QItem.item)
+                .where(predicate)
+                .limit(nearCandidates)
+                .fetch()) {
+            double distance = near.distanceTo(candidate.get(QItem.item.latitude), candidate.get(QItem.item.longitude));
+            if (distance <= near.getRadius()) {
+                distances.put(candidate.get(QItem.item.id), distance);
+            }
+        }
+        List<Long> found = new ArrayList<>(text.isEmpty() || distances.isEmpty()
+                ? distances.keySet() : matchingText(text, distances.keySet()));
+        Comparator<Long> nearestFirst = Comparator.comparing((Long itemId) -> distances.get(itemId)).thenComparing(Comparator.naturalOrder());
+        found.sort(sort == ItemSort.DEFAULT ? nearestFirst : byStats(found, sort).thenComparing(nearestFirst));
+        List<Long> pageIds = found.stream().skip(page.getOffset()).limit(page.getPageSize()).toList();
+        Map<Long, Item> items = itemRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ItemMapper.toItemDto(pageIds.stream().map(items::get).toList());
+    }
+
+    /**
+     * The ids among {@code itemIds} of the items matching {@code text} the way {@link #findItems} matches them: by
+     * word prefixes in the index or the full-text column, and by substring otherwise.
+     */
+    private Collection<Long> matchingText(String text, Collection<Long> itemIds) {
+        if (itemSearchIndex.isReady()) {
+            return itemSearchIndex.retainMatching(text, itemIds);
+        }
+        if (fullTextSearch) {
+            String query = toPrefixQuery(text);
+            return query.isEmpty() ? Collections.emptySet() : itemRepository.findIdsMatching(itemIds, query);
+        }
+        return new JPAQueryFactory(entityManager)
+                .select(QItem.item.id)
+                .from(QItem.item)
+                .where(QItem.item.id.in(itemIds).and(containsText(text)))
+                .fetch();
+    }
+
+    private Comparator<Long> byStats(List<Long> itemIds, ItemSort sort) {
+        Map<Long, ItemStats> stats = itemStatsRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemStats::getItemId, Function.identity()));
+        ItemStats noStats = ItemStats.builder().commentCount(0L).ratingCount(0L).ratingSum(0L).averageRating(0.0).build();
+        Function<Long, ItemStats> statsOf = itemId -> stats.getOrDefault(itemId, noStats);
+        return switch (sort) {
+            case DEFAULT -> (first, second) -> 0;
+            case RATING -> Comparator.comparing((Long itemId) -> statsOf.apply(itemId).getAverageRating(), Comparator.reverseOrder())
+                    .thenComparing(itemId -> statsOf.apply(itemId).getRatingCount(), Comparator.reverseOrder());
+            case COMMENTS -> Comparator.comparing((Long itemId) -> statsOf.apply(itemId).getCommentCount(), Comparator.reverseOrder());
+        };
+    }
+
+    private static BooleanExpression containsText(String text) {
+        return QItem.item.name.containsIgnoreCase(text).or(QItem.item.description.containsIgnoreCase(text));
+    }
+
+    /**
+     * Suggestions come from the name trie of {@link ItemSearchIndex}, most booked first; until it is loaded, the
+     * available items whose names start with the prefix are listed by name instead.
+     */
+    @Override
+    public Collection<ItemShortDto> suggestItems(String prefix, Integer size) {
+        String normalisedPrefix = prefix.trim().toLowerCase(Locale.ROOT);
+        if (normalisedPrefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int limit = Math.min(size, ItemSearchIndex.SUGGEST_TOP_K);
+        if (itemSearchIndex.isReady()) {
+            return itemSearchIndex.suggest(normalisedPrefix, limit);
+        }
+        BooleanExpression startsWithPrefix = QItem.item.name.startsWithIgnoreCase(normalisedPrefix);
+        BooleanExpression isAvailable = QItem.item.available.isTrue();
+        return ItemMapper.toItemDto(itemRepository.findAll(isAvailable.and(startsWithPrefix),
+                PageRequest.of(0, limit, SUGGEST_ORDER)).getContent());
     }
 
     @Override
+    @Transactional
     public ItemShortDto create(Long userId, ItemShortDto newItemShortDto) {
         User user = userRepository.getUserById(userId);
         ItemRequest itemRequest = (Objects.isNull(newItemShortDto.getRequestId())) ? null : itemRequestRepository.getItemRequestBy(newItemShortDto.getRequestId());
         Item newItem = ItemMapper.toItem(newItemShortDto, user, itemRequest);
-        return ItemMapper.toItemDto(itemRepository.save(newItem));
+        locate(newItem, newItemShortDto.getLatitude(), newItemShortDto.getLongitude());
+        newItem = itemRepository.save(newItem);
+        itemStatsRepository.createFor(newItem.getId());
+        itemSearchIndex.put(newItem);
+        afterCommit(searchGeneration::incrementAndGet);
+        return ItemMapper.toItemDto(newItem);
+    }
+
+    /**
+     * Rows come already validated by the gateway; here they are only checked against the requests they answer, and
+     * inserted {@code batch-size} at a time through one JDBC batch each.
+     */
+    @Override
+    public ItemImportResultDto importItems(Long userId, Iterator<ItemImportRowDto> rows) {
+        User owner = userRepository.getUserById(userId);
+        List<ItemImportErrorDto> errors = new ArrayList<>();
+        List<ItemImportRowDto> batch = new ArrayList<>(importBatchSize);
+        int imported = 0;
+        while (rows.hasNext()) {
+            batch.add(rows.next());
+            if (batch.size() == importBatchSize) {
+                imported += importBatch(owner, batch, errors);
+                batch.clear();
+            }
+        }
+        imported += importBatch(owner, batch, errors);
+        if (imported > 0) {
+            afterCommit(searchGeneration::incrementAndGet);
+        }
+        return ItemImportResultDto.builder().imported(imported).errors(errors).build();
+    }
+
+    private int importBatch(User owner, List<ItemImportRowDto> batch, List<ItemImportErrorDto> errors) {
+        Set<Long> requestIds = batch.stream()
+                .map(ItemImportRowDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        List<Item> items = new ArrayList<>(batch.size());
+        for (ItemImportRowDto row : batch) {
+            if (row.getRequestId() != null && !requests.containsKey(row.getRequestId())) {
+                errors.add(ItemImportErrorDto.builder()
+                        .row(row.getRow())
+                        .error(String.format(ItemRequestRepository.ITEMREQUEST_NOT_FOUND_MSG, row.getRequestId()))
+                        .build());
+                continue;
+            }
+            Item item = ItemMapper.toItem(row, owner, requests.get(row.getRequestId()));
+            try {
+                locate(item, row.getLatitude(), row.getLongitude());
+            } catch (BadRequestException e) {
+                errors.add(ItemImportErrorDto.builder().row(row.getRow()).error(e.getMessage()).build());
+                continue;
+            }
+            items.add(item);
+        }
+        if (!items.isEmpty()) {
+            itemRepository.insertAll(items).forEach(itemSearchIndex::put);
+        }
+        return items.size();
     }
 
     @Override
+    @CacheEvict(value = ITEMS_CACHE, key = "#itemId")
     public ItemShortDto update(Long userId, Long itemId, ItemShortDto updItem) {
         User owner = userRepository.getUserById(userId);
         Item oldItem = itemRepository.getItemById(itemId);
         if (!oldItem.getOwner().getId().equals(userId)) {
             throw new NotFoundException(String.format(OWNER_NOT_FOUND_MSG, itemId, userId));
         }
-        oldItem.setName(Objects.requireNonNullElse(updItem.getName(), oldItem.getName()));
-        oldItem.setDescription(Objects.requireNonNullElse(updItem.getDescription(), oldItem.getDescription()));
-        oldItem.setAvailable(Objects.requireNonNullElse(updItem.getAvailable(), oldItem.getAvailable()));
-        return ItemMapper.toItemDto(itemRepository.save(oldItem));
+        String oldName = oldItem.getName();
+        String oldDescription = oldItem.getDescription();
+        Boolean oldAvailable = oldItem.getAvailable();
+        Long oldGeoCell = oldItem.getGeoCell();
+        oldItem.setName(Objects.requireNonNullElse(updItem.getName(), oldName));
+        oldItem.setDescription(Objects.requireNonNullElse(updItem.getDescription(), oldDescription));
+        oldItem.setAvailable(Objects.requireNonNullElse(updItem.getAvailable(), oldAvailable));
+        if (updItem.getLatitude() != null || updItem.getLongitude() != null) {
+            locate(oldItem, updItem.getLatitude(), updItem.getLongitude());
+        }
+        Item savedItem = itemRepository.save(oldItem);
+        itemSearchIndex.put(savedItem);
+        if (!Objects.equals(oldName, savedItem.getName()) || !Objects.equals(oldDescription, savedItem.getDescription())
+                || !Objects.equals(oldAvailable, savedItem.getAvailable()) || !Objects.equals(oldGeoCell, savedItem.getGeoCell())) {
+            afterCommit(searchGeneration::incrementAndGet);
+        }
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
+    @Transactional
     public CommentDto addComment(Long authorId, Long itemId, CommentShortDto commentShortDto) {
         User author = userRepository.getUserById(authorId);
         Item item = itemRepository.getItemById(itemId);
         if (!bookingRepository.existValidBooking(authorId, itemId)) {
             throw new BadRequestException(COMMENT_NOT_ALLOWED_MSG);
         }
-        return CommentMapper.toCommentDto(commentRepository.save(CommentMapper.toComment(commentShortDto, author, item)));
+        Comment comment = commentRepository.save(CommentMapper.toComment(commentShortDto, author, item));
+        if (comment.getRating() == null) {
+            itemStatsRepository.addComment(itemId);
+        } else {
+            itemStatsRepository.addRatedComment(itemId, comment.getRating());
+        }
+        afterCommit(() -> Objects.requireNonNull(cacheManager.getCache(ITEMS_CACHE)).evict(itemId));
+        afterCommit(searchGeneration::incrementAndGet);
+        return CommentMapper.toCommentDto(comment);
+    }
+
+    /**
+     * Runs {@code action} once the current transaction has committed, or at once outside of one, so that no reader
+     * caches a result under a new generation, or refills an evicted entry, before the write is visible to it.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void locate(Item item, Double latitude, Double longitude) {
+        if ((latitude == null) != (longitude == null)) {
+            throw new BadRequestException(INCOMPLETE_LOCATION_MSG);
+        }
+        item.setLatitude(latitude);
+        item.setLongitude(longitude);
+        item.setGeoCell(latitude != null ? GeoHash.encode(latitude, longitude) : null);
+    }
+
+    private static Sort toSort(ItemSort sort) {
+        return switch (sort) {
+            case DEFAULT -> ID_ORDER;
+            case RATING -> RATING_ORDER;
+            case COMMENTS -> COMMENTS_ORDER;
+        };
+    }
+
+    private static String toPrefixQuery(String text) {
+        return ItemSearchIndex.tokenize(text).stream()
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
     }
 
+    @Override
+    public void checkAvailabilityPeriod(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException(String.format(INVALID_PERIOD_MSG, from, to));
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format(ItemRepository.ITEM_NOT_FOUND_MSG, itemId));
+        }
+    }
+
+    @Override
+    public void checkOwnerExists(Long ownerId) {
+        userRepository.getUserById(ownerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportItems(Long ownerId, Consumer<ItemShortDto> action) {
+        try (Stream<Item> items = itemRepository.streamByOwnerIdOrderById(ownerId)) {
+            int exported = 0;
+            for (Iterator<Item> iterator = items.iterator(); iterator.hasNext(); ) {
+                action.accept(ItemMapper.toItemDto(iterator.next()));
+                // otherwise the persistence context keeps every exported item until the export ends
+                if (++exported % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void findAvailability(Long itemId, LocalDateTime from, LocalDateTime to, Consumer<AvailabilitySlotDto> action) {
+        AvailabilitySweep sweep = new AvailabilitySweep(from, to, action);
+        try (Stream<BookingPeriod> periods = bookingRepository.streamApprovedPeriods(itemId, from, to)) {
+            periods.forEach(period -> sweep.accept(period.getStart(), period.getEnd()));
+        }
+        sweep.finish();
+    }
 }
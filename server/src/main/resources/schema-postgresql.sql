@@ -0,0 +1,104 @@
+create extension if not exists btree_gist;
+
+do '
+declare
+    partition_month timestamp;
+    legacy_index record;
+begin
+    if (select relkind from pg_class where oid = to_regclass(''bookings'')) <> ''r'' then
+        return;
+    end if;
+    alter table bookings rename to bookings_unpartitioned;
+    create table bookings(
+        id bigint generated always as identity,
+        start_date timestamp without time zone not null,
+        end_date timestamp without time zone,
+        item_id bigint,
+        booker_id bigint,
+        status varchar(50),
+        phase varchar(50),
+        version bigint default 0 not null,
+        owner_id bigint,
+        period tsrange generated always as (tsrange(start_date, end_date, ''[]'')) stored,
+        constraint pk_bookings primary key (id, start_date),
+        constraint fk_bookings_to_items foreign key(item_id) references items(id),
+        constraint fk_bookings_to__users foreign key(booker_id) references users(id)
+        ) partition by range (start_date);
+    create table bookings_default partition of bookings default;
+    for partition_month in select distinct date_trunc(''month'', start_date) from bookings_unpartitioned
+            where start_date is not null loop
+        execute format(''create table %I partition of bookings for values from (%L) to (%L)'',
+                ''bookings_p'' || to_char(partition_month, ''YYYYMM''), partition_month, partition_month + interval ''1 month'');
+    end loop;
+    insert into bookings(id, start_date, end_date, item_id, booker_id, status, phase, version, owner_id) overriding system value
+        select id, start_date, end_date, item_id, booker_id, status, phase, version, owner_id from bookings_unpartitioned;
+    perform setval(pg_get_serial_sequence(''bookings'', ''id''), coalesce((select max(id) from bookings), 0) + 1, false);
+    for legacy_index in select indexname, indexdef from pg_indexes
+            where schemaname = current_schema() and tablename = ''bookings_unpartitioned'' and indexname like ''ix\_%'' loop
+        execute format(''drop index %I'', legacy_index.indexname);
+        execute replace(legacy_index.indexdef, ''.bookings_unpartitioned '', ''.bookings '');
+    end loop;
+    drop table bookings_unpartitioned;
+end';
+
+create or replace function bookings_check_approved_overlap() returns trigger as '
+begin
+    perform pg_advisory_xact_lock(new.item_id);
+    if exists(select 1 from bookings
+              where item_id = new.item_id
+                and status = ''APPROVED''
+                and id <> new.id
+                and period && tsrange(new.start_date, new.end_date, ''[]'')) then
+        raise exception using errcode = ''exclusion_violation'',
+            message = ''booking '' || new.id || '' overlaps an approved booking of item '' || new.item_id;
+    end if;
+    return new;
+end' language plpgsql;
+
+create or replace trigger tr_bookings_approved_overlap_insert
+    before insert on bookings
+    for each row when (new.status = 'APPROVED')
+    execute function bookings_check_approved_overlap();
+
+create or replace trigger tr_bookings_approved_overlap_update
+    before update on bookings
+    for each row when (new.status = 'APPROVED' and (old.status is distinct from 'APPROVED'
+        or old.start_date is distinct from new.start_date or old.end_date is distinct from new.end_date))
+    execute function bookings_check_approved_overlap();
+
+create index if not exists ix_bookings_item_approved_period on bookings using gist (item_id, period) where status = 'APPROVED';
+
+create index if not exists ix_bookings_not_ended_start on bookings(start_date) where phase is null or phase <> 'ENDED';
+
+create index if not exists ix_bookings_booker_waiting on bookings(booker_id, start_date desc, id desc) where status = 'WAITING';
+
+create index if not exists ix_bookings_booker_rejected on bookings(booker_id, start_date desc, id desc) where status = 'REJECTED';
+
+drop index if exists ix_bookings_item_waiting;
+
+drop index if exists ix_bookings_item_rejected;
+
+create index if not exists ix_bookings_owner_waiting on bookings(owner_id, start_date desc, id desc) where status = 'WAITING';
+
+create index if not exists ix_bookings_owner_rejected on bookings(owner_id, start_date desc, id desc) where status = 'REJECTED';
+
+create schema if not exists booking_archive;
+
+alter table items add column if not exists search_vector tsvector;
+
+create or replace function items_update_search_vector() returns trigger as '
+begin
+    new.search_vector := setweight(to_tsvector(''simple'', coalesce(new.name, '''')), ''A'')
+        || setweight(to_tsvector(''simple'', coalesce(new.description, '''')), ''B'');
+    return new;
+end' language plpgsql;
+
+create or replace trigger tr_items_search_vector
+    before insert or update of name, description on items
+    for each row execute function items_update_search_vector();
+
+update items set search_vector = setweight(to_tsvector('simple', coalesce(name, '')), 'A')
+    || setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    where search_vector is null;
+
+create index if not exists ix_items_search_vector on items using gin (search_vector);
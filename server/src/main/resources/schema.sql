@@ -43,4 +43,78 @@ create table if not exists comments (
     created timestamp null,
     constraint fk_comments_to_items foreign key (item_id) references items(id),
     constraint fk_comments_to_users foreign key (author_id) references users(id)
-    );
\ No newline at end of file
+    );
+
+drop index if exists ix_items_owner;
+
+create index if not exists ix_items_owner_id on items(owner_id, id);
+
+create index if not exists ix_bookings_booker_start on bookings(booker_id, start_date desc, id desc);
+
+create index if not exists ix_bookings_item_start on bookings(item_id, start_date desc, id desc);
+
+alter table bookings add column if not exists phase varchar(50);
+
+create index if not exists ix_bookings_booker_phase on bookings(booker_id, phase, start_date desc, id desc);
+
+create index if not exists ix_bookings_start on bookings(start_date);
+
+create index if not exists ix_bookings_end on bookings(end_date);
+
+alter table bookings add column if not exists version bigint default 0 not null;
+
+alter table items add column if not exists version bigint default 0 not null;
+
+alter table bookings add column if not exists owner_id bigint;
+
+update bookings set owner_id = (select i.owner_id from items as i where i.id = bookings.item_id) where owner_id is null;
+
+create index if not exists ix_bookings_owner_start on bookings(owner_id, start_date desc, id desc);
+
+create index if not exists ix_bookings_owner_phase on bookings(owner_id, phase, start_date desc, id desc);
+
+drop index if exists ix_bookings_item_phase;
+
+alter table comments add column if not exists owner_id bigint;
+
+update comments set owner_id = (select i.owner_id from items as i where i.id = comments.item_id) where owner_id is null;
+
+create index if not exists ix_comments_owner_created on comments(owner_id, created desc);
+
+alter table items add column if not exists last_booking_end timestamp without time zone;
+
+alter table items add column if not exists next_booking_start timestamp without time zone;
+
+create table if not exists item_stats(
+    item_id bigint primary key,
+    comment_count bigint default 0 not null,
+    rating_count bigint default 0 not null,
+    rating_sum bigint default 0 not null,
+    average_rating double precision default 0 not null,
+    constraint fk_item_stats_to_items foreign key(item_id) references items(id)
+    );
+
+alter table comments add column if not exists rating smallint;
+
+insert into item_stats(item_id, comment_count)
+    select i.id, (select count(*) from comments as c where c.item_id = i.id) from items as i
+    where not exists(select 1 from item_stats as s where s.item_id = i.id);
+
+alter table items add column if not exists latitude double precision;
+
+alter table items add column if not exists longitude double precision;
+
+alter table items add column if not exists geo_cell bigint;
+
+create index if not exists ix_items_geo_cell on items(geo_cell);
+
+create table if not exists item_photos(
+    id bigint generated always as identity primary key,
+    item_id bigint not null,
+    hash varchar(64) not null,
+    content_type varchar(100) not null,
+    content_length bigint not null,
+    created timestamp without time zone,
+    constraint fk_item_photos_to_items foreign key(item_id) references items(id),
+    constraint uq_item_photos_item_hash unique (item_id, hash)
+    );
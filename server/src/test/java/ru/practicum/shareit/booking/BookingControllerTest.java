@@ -11,10 +11,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingCartDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -158,6 +164,40 @@ class BookingControllerTest {
         Assertions.assertIterableEquals(expectedBookingDtos, actualBookingDto);
     }
 
+    @Test
+    @SneakyThrows
+    void findBookingsByStateAfterTest() {
+        Long userId = 10L;
+        String after = "MjAyNS0wMS0wMVQwMTowMSwy";
+        String nextCursor = "MjAyNS0wMS0wMVQwMTowMSwx";
+        BookingState bookingState = BookingState.ALL;
+        BookingDto expectedBookingDto = BookingDto.builder()
+                .id(1L)
+                .start(LocalDateTime.of(2025, 1, 1, 1, 1))
+                .end(LocalDateTime.of(2026, 1, 1, 1, 1))
+                .item(ItemShortDto.builder().id(100L).name("test name").description("test description").available(true).build())
+                .booker(UserDto.builder().id(2L).email("test@test.com").name("test name").build())
+                .build();
+        BookingSliceDto expectedSlice = BookingSliceDto.builder()
+                .content(List.of(expectedBookingDto))
+                .nextCursor(nextCursor)
+                .build();
+        Mockito.when(bookingService.findBookingsByStateAfter(userId, bookingState, after, 1))
+                .thenReturn(expectedSlice);
+
+        MvcResult mvcResult = mockMvc.perform(get("/bookings?state={state}&after={after}&size=1", bookingState, after)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARER_USER_ID, userId))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String responseBody = mvcResult.getResponse().getContentAsString();
+        BookingSliceDto actualSlice = mapper.readValue(responseBody, BookingSliceDto.class);
+        Assertions.assertIterableEquals(expectedSlice.getContent(), actualSlice.getContent());
+        Assertions.assertEquals(nextCursor, actualSlice.getNextCursor());
+        Mockito.verify(bookingService, Mockito.never()).findBookingsByState(Mockito.anyLong(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
     @Test
     @SneakyThrows
     void createTest() {
@@ -207,6 +247,41 @@ class BookingControllerTest {
         Assertions.assertEquals(expectedBookingDto, actualBookingDto);
     }
 
+    @Test
+    @SneakyThrows
+    void createAllTest() {
+        Long userId = 10L;
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 1, 1);
+        LocalDateTime end = LocalDateTime.of(2026, 1, 1, 1, 1);
+        BookingCartDto bookingCartDto = BookingCartDto.builder()
+                .start(start)
+                .end(end)
+                .itemIds(List.of(100L, 200L))
+                .build();
+        List<BookingDto> expectedBookingDtos = List.of(
+                BookingDto.builder().id(1L).start(start).end(end)
+                        .item(ItemShortDto.builder().id(100L).name("drill").build())
+                        .status(String.valueOf(BookingStatus.WAITING)).build(),
+                BookingDto.builder().id(2L).start(start).end(end)
+                        .item(ItemShortDto.builder().id(200L).name("ladder").build())
+                        .status(String.valueOf(BookingStatus.WAITING)).build());
+        Mockito.when(bookingService.createAll(userId, bookingCartDto)).thenReturn(expectedBookingDtos);
+
+        MvcResult mvcResult = mockMvc.perform(post("/bookings/cart")
+                        .content(mapper.writeValueAsString(bookingCartDto))
+                        .header(X_SHARER_USER_ID, userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        String responseBody = mvcResult.getResponse().getContentAsString();
+        List<BookingDto> actualBookingDtos = mapper.readValue(responseBody, new TypeReference<>() {
+        });
+        Assertions.assertEquals(expectedBookingDtos, actualBookingDtos);
+    }
+
     @Test
     @SneakyThrows
     void updateTest() {
@@ -275,4 +350,31 @@ class BookingControllerTest {
         Assertions.assertEquals(expectedRejectedBookingDto, actualRejectedBookingDto);
         Assertions.assertEquals(expectedRejectedBookingDto.getStatus(), actualRejectedBookingDto.getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void updateAllTest() {
+        Long ownerId = 10L;
+        List<BookingDecisionDto> decisions = List.of(
+                BookingDecisionDto.builder().bookingId(1L).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(2L).approved(false).build());
+        List<BookingDecisionResultDto> expectedResults = List.of(
+                BookingDecisionResultDto.builder().bookingId(1L).status(String.valueOf(BookingStatus.APPROVED)).build(),
+                BookingDecisionResultDto.builder().bookingId(2L).error("Бронирование с id = 2 не найдено").build());
+        Mockito.when(bookingService.updateAll(ownerId, decisions)).thenReturn(expectedResults);
+
+        MvcResult mvcResult = mockMvc.perform(patch("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(decisions))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(X_SHARER_USER_ID, ownerId))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String responseBody = mvcResult.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<BookingDecisionResultDto> actualResults = mapper.readValue(responseBody, new TypeReference<>() {
+        });
+        Assertions.assertEquals(expectedResults, actualResults);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.common.CommonConstants.X_SHARER_USER_ID;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingQueryBudgetTest {
+    static final int BOOKINGS = 5;
+
+    private final MockMvc mockMvc;
+    private final EntityManager em;
+    private final EntityManagerFactory entityManagerFactory;
+
+    User owner;
+    User booker;
+    Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        owner = persistUser("owner");
+        booker = persistUser("booker");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            Item item = Item.builder().name("item " + i).description("description").available(true).owner(owner).build();
+            em.persist(item);
+            items.add(item);
+            booking = persistBooking(item, booker, start.plusDays(i));
+        }
+        for (int i = 0; i < BOOKINGS; i++) {
+            persistBooking(items.get(0), persistUser("other booker " + i), start.minusDays(i + 1));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void findBookingById_shouldFitQueryBudget() {
+        assertQueryBudget(2, get("/bookings/{bookingId}", booking.getId()).header(X_SHARER_USER_ID, owner.getId()));
+    }
+
+    @Test
+    void findBookingsByState_shouldFitQueryBudget() {
+        assertQueryBudget(1, get("/bookings").header(X_SHARER_USER_ID, booker.getId()));
+        assertQueryBudget(1, get("/bookings").param("after", "").header(X_SHARER_USER_ID, booker.getId()));
+    }
+
+    @Test
+    void findBookingsOwnerByState_shouldFitQueryBudget() {
+        assertQueryBudget(3, get("/bookings/owner").header(X_SHARER_USER_ID, owner.getId()));
+        assertQueryBudget(2, get("/bookings/owner").param("after", "").header(X_SHARER_USER_ID, owner.getId()));
+    }
+
+    @SneakyThrows
+    private void assertQueryBudget(long budget, RequestBuilder request) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        em.clear();
+        statistics.clear();
+
+        mockMvc.perform(request).andExpect(status().isOk());
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= budget, String.format("Expected at most %d statements, got %d", budget, statements));
+    }
+
+    private User persistUser(String name) {
+        User user = User.builder().name(name).email(name.replace(' ', '.') + "@test.com").build();
+        em.persist(user);
+        return user;
+    }
+
+    private Booking persistBooking(Item item, User booker, LocalDateTime start) {
+        Booking booking = Booking.builder()
+                .item(item).booker(booker).start(start).end(start.plusHours(1)).status(BookingStatus.APPROVED).build();
+        em.persist(booking);
+        return booking;
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.booking.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link BookingIntervalIndex#hasIntersection} with the overlap query behind
+ * {@code BookingRepository.existIntersectingBookingDatesForItem} on an in-memory H2 copy of the bookings table.
+ * Run {@link #main} after {@code mvn test-compile}, e.g. from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingIntervalIndexBenchmark {
+    static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+    static final int BOOKINGS_PER_ITEM = 100;
+    static final int QUERIES = 1024;
+    static final String INTERSECTION_SQL = "select count(*) from bookings " +
+            "where item_id = ? and status = 'APPROVED' and start_date <= ? and end_date >= ?";
+
+    @Param({"10000", "100000"})
+    int bookings;
+
+    Connection connection;
+    PreparedStatement intersectionStatement;
+    BookingIntervalIndex index;
+    long[] itemIds;
+    LocalDateTime[] starts;
+    LocalDateTime[] ends;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:booking-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bookings");
+            statement.execute("create table bookings(id bigint generated always as identity primary key, " +
+                    "start_date timestamp, end_date timestamp, item_id bigint, booker_id bigint, status varchar(50))");
+        }
+        index = new BookingIntervalIndex(null, null);
+        int items = Math.max(1, bookings / BOOKINGS_PER_ITEM);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into bookings(start_date, end_date, item_id, booker_id, status) values (?, ?, ?, 1, 'APPROVED')")) {
+            for (int i = 0; i < bookings; i++) {
+                long itemId = i % items;
+                LocalDateTime start = BASE.plusDays(2L * (i / items));
+                LocalDateTime end = start.plusDays(1);
+                insert.setTimestamp(1, Timestamp.valueOf(start));
+                insert.setTimestamp(2, Timestamp.valueOf(end));
+                insert.setLong(3, itemId);
+                insert.addBatch();
+                index.add(itemId, start, end);
+            }
+            insert.executeBatch();
+        }
+        intersectionStatement = connection.prepareStatement(INTERSECTION_SQL);
+
+        Random random = new Random(42);
+        itemIds = new long[QUERIES];
+        starts = new LocalDateTime[QUERIES];
+        ends = new LocalDateTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            itemIds[i] = random.nextInt(items);
+            starts[i] = BASE.plusHours(random.nextInt(BOOKINGS_PER_ITEM * 48));
+            ends[i] = starts[i].plusHours(1 + random.nextInt(12));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        intersectionStatement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean intervalIndex() {
+        int i = next++ & (QUERIES - 1);
+        return index.hasIntersection(itemIds[i], starts[i], ends[i]);
+    }
+
+    @Benchmark
+    public boolean repositoryQuery() throws SQLException {
+        int i = next++ & (QUERIES - 1);
+        intersectionStatement.setLong(1, itemIds[i]);
+        intersectionStatement.setTimestamp(2, Timestamp.valueOf(ends[i]));
+        intersectionStatement.setTimestamp(3, Timestamp.valueOf(starts[i]));
+        try (ResultSet resultSet = intersectionStatement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1) != 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BookingIntervalIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
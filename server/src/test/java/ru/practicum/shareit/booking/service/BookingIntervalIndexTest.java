@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingPeriod;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+    static final Long ITEM_ID = 1L;
+    static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    BookingRepository bookingRepository;
+    BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        index = new BookingIntervalIndex(bookingRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(index, "enabled", true);
+    }
+
+    @Test
+    void load_shouldMakeIndexReady_whenEnabled() {
+        when(bookingRepository.streamApprovedPeriodsEndingFrom(any())).thenReturn(Stream.of(period(ITEM_ID, 10, 20)));
+
+        index.load();
+
+        assertTrue(index.isReady());
+        assertTrue(index.covers(hour(0)));
+        assertFalse(index.covers(LocalDateTime.now().minusMinutes(1)));
+        assertTrue(index.hasIntersection(ITEM_ID, hour(15), hour(16)));
+    }
+
+    @Test
+    void reconcile_shouldReplacePeriodsWithRepositoryContents_keepingApprovalsMadeMeanwhile() {
+        when(bookingRepository.streamApprovedPeriodsEndingFrom(any()))
+                .thenReturn(Stream.of(period(ITEM_ID, 10, 20)))
+                .thenAnswer(invocation -> {
+                    index.add(ITEM_ID, hour(50), hour(60));
+                    return Stream.of(period(ITEM_ID, 30, 40));
+                });
+        index.load();
+
+        index.reconcile();
+
+        assertFalse(index.hasIntersection(ITEM_ID, hour(15), hour(16)));
+        assertTrue(index.hasIntersection(ITEM_ID, hour(35), hour(36)));
+        assertTrue(index.hasIntersection(ITEM_ID, hour(55), hour(56)));
+    }
+
+    @Test
+    void load_shouldLeaveIndexNotReady_whenDisabled() {
+        ReflectionTestUtils.setField(index, "enabled", false);
+
+        index.load();
+
+        assertFalse(index.isReady());
+    }
+
+    @Test
+    void hasIntersection_shouldMatchRepositorySemantics() {
+        index.add(ITEM_ID, hour(10), hour(20));
+
+        assertTrue(index.hasIntersection(ITEM_ID, hour(5), hour(10)));
+        assertTrue(index.hasIntersection(ITEM_ID, hour(20), hour(25)));
+        assertTrue(index.hasIntersection(ITEM_ID, hour(12), hour(14)));
+        assertTrue(index.hasIntersection(ITEM_ID, hour(5), hour(25)));
+        assertFalse(index.hasIntersection(ITEM_ID, hour(0), hour(9)));
+        assertFalse(index.hasIntersection(ITEM_ID, hour(21), hour(30)));
+        assertFalse(index.hasIntersection(2L, hour(12), hour(14)));
+    }
+
+    @Test
+    void add_shouldMergeOverlappingPeriods() {
+        index.add(ITEM_ID, hour(10), hour(20));
+        index.add(ITEM_ID, hour(30), hour(40));
+        index.add(ITEM_ID, hour(50), hour(60));
+        index.add(ITEM_ID, hour(15), hour(55));
+
+        assertTrue(index.hasIntersection(ITEM_ID, hour(25), hour(26)));
+        assertTrue(index.hasIntersection(ITEM_ID, hour(58), hour(70)));
+        assertFalse(index.hasIntersection(ITEM_ID, hour(61), hour(70)));
+        assertFalse(index.hasIntersection(ITEM_ID, hour(0), hour(9)));
+    }
+
+    static LocalDateTime hour(int hours) {
+        return BASE.plusHours(hours);
+    }
+
+    static BookingPeriod period(Long itemId, int startHour, int endHour) {
+        return new BookingPeriod() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return hour(startHour);
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return hour(endHour);
+            }
+        };
+    }
+}
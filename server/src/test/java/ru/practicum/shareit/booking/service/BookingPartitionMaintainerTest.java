@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingPartitionRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = {@Autowired})
+class BookingPartitionMaintainerTest {
+
+    @MockBean
+    private BookingPartitionRepository bookingPartitionRepository;
+
+    @MockBean
+    private BookingRepository bookingRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    BookingPartitionMaintainer maintainer;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        maintainer = new BookingPartitionMaintainer(bookingPartitionRepository, bookingRepository, transactionTemplate);
+        ReflectionTestUtils.setField(maintainer, "monthsAhead", 2);
+        ReflectionTestUtils.setField(maintainer, "retention", Period.ofYears(1));
+        now = LocalDateTime.of(2026, 5, 15, 12, 0);
+    }
+
+    @Test
+    void maintain_shouldCreateMissingMonthsAhead() {
+        when(bookingPartitionRepository.findMonthlyPartitions()).thenReturn(Set.of(YearMonth.of(2026, 5)));
+
+        maintainer.maintain(now);
+
+        verify(bookingPartitionRepository).lockPartitions();
+        verify(bookingPartitionRepository, never()).createMonthlyPartition(YearMonth.of(2026, 5));
+        verify(bookingPartitionRepository).createMonthlyPartition(YearMonth.of(2026, 6));
+        verify(bookingPartitionRepository).createMonthlyPartition(YearMonth.of(2026, 7));
+        verify(bookingPartitionRepository, times(2)).createMonthlyPartition(any());
+    }
+
+    @Test
+    void maintain_shouldArchiveMonthsOlderThanRetention() {
+        when(bookingPartitionRepository.findMonthlyPartitions()).thenReturn(Set.of(
+                YearMonth.of(2025, 3), YearMonth.of(2025, 4), YearMonth.of(2025, 5), YearMonth.of(2026, 5),
+                YearMonth.of(2026, 6), YearMonth.of(2026, 7)));
+
+        maintainer.maintain(now);
+
+        LocalDateTime cutoff = LocalDateTime.of(2025, 5, 1, 0, 0);
+        verify(bookingPartitionRepository).archiveMonthlyPartition(YearMonth.of(2025, 3), cutoff);
+        verify(bookingPartitionRepository).archiveMonthlyPartition(YearMonth.of(2025, 4), cutoff);
+        verify(bookingPartitionRepository, times(2)).archiveMonthlyPartition(any(), any());
+        verify(bookingPartitionRepository, never()).createMonthlyPartition(any());
+    }
+
+    @Test
+    void maintain_shouldBoundNotEndedBookingsByMonthOfEarliestStart() {
+        when(bookingPartitionRepository.findMonthlyPartitions()).thenReturn(Set.of());
+        when(bookingRepository.findEarliestNotEndedStart()).thenReturn(Optional.of(LocalDateTime.of(2026, 3, 20, 10, 0)));
+
+        maintainer.maintain(now);
+
+        assertEquals(LocalDateTime.of(2026, 3, 1, 0, 0), maintainer.getNotEndedFrom());
+
+        when(bookingRepository.findEarliestNotEndedStart()).thenReturn(Optional.empty());
+
+        maintainer.maintain(LocalDateTime.of(2026, 6, 1, 0, 30));
+
+        assertEquals(LocalDateTime.of(2026, 5, 1, 0, 0), maintainer.getNotEndedFrom());
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = {@Autowired})
+class BookingPhaseSweeperIntegrationTest {
+
+    private final BookingRepository bookingRepository;
+
+    private final ItemRepository itemRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManager em;
+
+    BookingPhaseSweeper sweeper;
+    LocalDateTime now;
+    User booker;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new BookingPhaseSweeper(bookingRepository, itemRepository, transactionTemplate);
+        ReflectionTestUtils.setField(sweeper, "tick", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(sweeper, "wheelSize", 1440);
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        User owner = User.builder().name("owner").email("owner@test.com").build();
+        em.persist(owner);
+        booker = User.builder().name("booker").email("booker@test.com").build();
+        em.persist(booker);
+        item = Item.builder().name("item").description("item description").available(true).owner(owner).build();
+        em.persist(item);
+    }
+
+    @Test
+    void advance_shouldMoveBookingsThroughPhasesAndExpireWaiting() {
+        Booking approved = persistBooking(now.plusHours(1), now.plusHours(2), BookingStatus.APPROVED, null);
+        Booking waiting = persistBooking(now.plusHours(3), now.plusHours(4), BookingStatus.WAITING, null);
+        sweeper.start(now);
+
+        assertItemPointers(null, approved.getStart());
+
+        sweeper.advance(now.plusMinutes(90));
+
+        assertBooking(approved, BookingPhase.ACTIVE, BookingStatus.APPROVED);
+        assertBooking(waiting, BookingPhase.UPCOMING, BookingStatus.WAITING);
+        assertItemPointers(null, null);
+
+        sweeper.advance(now.plusMinutes(190));
+
+        assertBooking(approved, BookingPhase.ENDED, BookingStatus.APPROVED);
+        assertBooking(waiting, BookingPhase.ACTIVE, BookingStatus.EXPIRED);
+        assertItemPointers(approved.getEnd(), null);
+    }
+
+    @Test
+    void advance_shouldPickUpBookingsScheduledAfterStart() {
+        sweeper.start(now);
+        Booking approved = persistBooking(now.plusHours(1), now.plusHours(2), BookingStatus.APPROVED, null);
+        TransactionTemplate outsideTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        outsideTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        outsideTransaction.executeWithoutResult(status ->
+                sweeper.schedule(approved.getId(), approved.getStart(), approved.getEnd()));
+
+        sweeper.advance(now.plusMinutes(61));
+
+        assertBooking(approved, BookingPhase.ACTIVE, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void start_shouldCatchUpOnMissedTransitions() {
+        Booking ended = persistBooking(now.minusHours(4), now.minusHours(3), BookingStatus.APPROVED, BookingPhase.UPCOMING);
+        Booking active = persistBooking(now.minusHours(1), now.plusHours(1), BookingStatus.WAITING, BookingPhase.UPCOMING);
+
+        sweeper.start(now);
+
+        assertBooking(ended, BookingPhase.ENDED, BookingStatus.APPROVED);
+        assertBooking(active, BookingPhase.ACTIVE, BookingStatus.EXPIRED);
+        assertItemPointers(ended.getEnd(), null);
+    }
+
+    private Booking persistBooking(LocalDateTime start, LocalDateTime end, BookingStatus status, BookingPhase phase) {
+        Booking booking = Booking.builder()
+                .start(start).end(end).item(item).booker(booker).status(status).phase(phase).build();
+        if (phase == null) {
+            booking.setPhase(BookingPhase.of(start, end, now));
+        }
+        em.persist(booking);
+        em.flush();
+        return booking;
+    }
+
+    private void assertBooking(Booking booking, BookingPhase phase, BookingStatus status) {
+        em.clear();
+        Booking stored = em.find(Booking.class, booking.getId());
+        assertThat(stored.getPhase(), equalTo(phase));
+        assertThat(stored.getStatus(), equalTo(status));
+    }
+
+    private void assertItemPointers(LocalDateTime lastBookingEnd, LocalDateTime nextBookingStart) {
+        em.clear();
+        Item stored = em.find(Item.class, item.getId());
+        assertThat(stored.getLastBookingEnd(), equalTo(lastBookingEnd));
+        assertThat(stored.getNextBookingStart(), equalTo(nextBookingStart));
+    }
+}
@@ -3,14 +3,24 @@ package ru.practicum.shareit.booking.service;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionCandidate;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -25,6 +35,7 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
@@ -32,6 +43,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.NEWEST_FIRST;
 
 @SpringBootTest
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -49,6 +61,9 @@ class BookingServiceImplTest {
     @MockBean
     private ItemRepository itemRepository;
 
+    @MockBean
+    private BookingIntervalIndex bookingIntervalIndex;
+
     User user;
     User booker;
     User owner;
@@ -168,7 +183,7 @@ class BookingServiceImplTest {
         when(userRepository.getUserById(booker.getId())).thenReturn(booker);
         when(userRepository.getUserById(owner.getId())).thenReturn(owner);
         Page<Booking> pagedBookings = new PageImpl<Booking>(bookings);
-        when(bookingRepository.findAllByState(booker.getId(), BookingState.ALL.toString(), PageRequest.of(0, 10)))
+        when(bookingRepository.findAll(ArgumentMatchers.<Specification<Booking>>any(), eq(PageRequest.of(0, 10, NEWEST_FIRST))))
                 .thenReturn(pagedBookings);
         Collection<BookingDto> expectedBookingDtos = bookingDtos;
 
@@ -184,7 +199,7 @@ class BookingServiceImplTest {
         when(userRepository.getUserById(owner.getId())).thenReturn(owner);
         Page<Booking> pagedBookings = new PageImpl<Booking>(bookings);
         when(itemRepository.existsItemsByOwnerId(owner.getId())).thenReturn(true);
-        when(bookingRepository.findAllOwnerByState(owner.getId(), BookingState.ALL.toString(), PageRequest.of(0, 10)))
+        when(bookingRepository.findAll(ArgumentMatchers.<Specification<Booking>>any(), eq(PageRequest.of(0, 10, NEWEST_FIRST))))
                 .thenReturn(pagedBookings);
         Collection<BookingDto> expectedBookingDtos = bookingDtos;
 
@@ -199,7 +214,42 @@ class BookingServiceImplTest {
         when(itemRepository.existsItemsByOwnerId(owner.getId())).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> bookingService.findBookingsOwnerByState(owner.getId(), BookingState.ALL, 0, 10));
-        verify(itemRepository, never()).findAllByOwnerId(anyLong());
+        verify(bookingRepository, never()).findAll(ArgumentMatchers.<Specification<Booking>>any(), any(Pageable.class));
+    }
+
+    @Test
+    void findBookingsByStateAfter_shouldReturnNextCursor_whenMoreBookingsExist() {
+        Booking olderBooking = Booking.builder()
+                .id(booking.getId() - 1)
+                .start(booking.getStart().minusDays(1))
+                .end(booking.getEnd().minusDays(1))
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .item(item)
+                .build();
+        when(bookingRepository.findBy(ArgumentMatchers.<Specification<Booking>>any(), any())).thenReturn(List.of(booking, olderBooking));
+
+        BookingSliceDto actualSlice = bookingService.findBookingsByStateAfter(booker.getId(), BookingState.ALL, "", 1);
+
+        assertIterableEquals(bookingDtos, actualSlice.getContent());
+        assertEquals(new BookingCursor(booking.getStart(), booking.getId()), BookingCursor.decode(actualSlice.getNextCursor()));
+    }
+
+    @Test
+    void findBookingsOwnerByStateAfter_shouldContinueFromCursor_whenLastSlice() {
+        BookingCursor cursor = new BookingCursor(booking.getStart().plusDays(1), booking.getId() + 1);
+        when(itemRepository.existsItemsByOwnerId(owner.getId())).thenReturn(true);
+        when(bookingRepository.findBy(ArgumentMatchers.<Specification<Booking>>any(), any())).thenReturn(bookings);
+
+        BookingSliceDto actualSlice = bookingService.findBookingsOwnerByStateAfter(owner.getId(), BookingState.ALL, cursor.encode(), 10);
+
+        assertIterableEquals(bookingDtos, actualSlice.getContent());
+        assertNull(actualSlice.getNextCursor());
+    }
+
+    @Test
+    void findBookingsByStateAfter_shouldThrowBadRequestException_whenCursorMalformed() {
+        assertThrows(BadRequestException.class, () -> bookingService.findBookingsByStateAfter(booker.getId(), BookingState.ALL, "not-a-cursor", 10));
     }
 
     @Test
@@ -277,6 +327,18 @@ class BookingServiceImplTest {
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
+    @Test
+    void createBooking_shouldUseIntervalIndex_whenIndexCoversPeriod() {
+        when(userRepository.getUserById(booker.getId())).thenReturn(booker);
+        when(itemRepository.getItemById(item.getId())).thenReturn(item);
+        when(bookingIntervalIndex.covers(booking.getStart())).thenReturn(true);
+        when(bookingIntervalIndex.hasIntersection(item.getId(), booking.getStart(), booking.getEnd())).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> bookingService.create(booker.getId(), bookingToCreateShortDto));
+        verify(bookingRepository, never()).existIntersectingBookingDatesForItem(any(), any(), anyLong());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
     @Test
     void updateBooking_shouldReturnBookingDto_whenAllConditionsMet() {
         booking.setStatus(BookingStatus.WAITING);
@@ -298,6 +360,95 @@ class BookingServiceImplTest {
         assertNotNull(actualBookingDto);
         assertEquals(expectedBookingDto, actualBookingDto);
         verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(bookingIntervalIndex, times(1)).add(item.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    @Test
+    void updateBooking_shouldRetry_whenBookingChangedConcurrently() {
+        when(bookingRepository.findById(booking.getId())).thenAnswer(invocation -> Optional.of(waitingBookingCopy()));
+        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
+        when(bookingRepository.save(any(Booking.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, booking.getId()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        BookingDto actualBookingDto = bookingService.update(owner.getId(), booking.getId(), true);
+
+        assertEquals(BookingStatus.APPROVED.name(), actualBookingDto.getStatus());
+        verify(bookingRepository, times(2)).save(any(Booking.class));
+        verify(bookingIntervalIndex, times(1)).add(item.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    @Test
+    void updateBooking_shouldRethrow_whenRetriesExhausted() {
+        when(bookingRepository.findById(booking.getId())).thenAnswer(invocation -> Optional.of(waitingBookingCopy()));
+        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
+        when(bookingRepository.save(any(Booking.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, booking.getId()));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> bookingService.update(owner.getId(), booking.getId(), true));
+        verify(bookingRepository, times(3)).save(any(Booking.class));
+        verify(bookingIntervalIndex, never()).add(anyLong(), any(), any());
+    }
+
+    @Test
+    void updateAll_shouldReportConflict_whenBookingDecidedConcurrently() {
+        BookingDecisionCandidate waiting = mock(BookingDecisionCandidate.class);
+        when(waiting.getId()).thenReturn(booking.getId());
+        when(waiting.getOwnerId()).thenReturn(owner.getId());
+        when(waiting.getStatus()).thenReturn(BookingStatus.WAITING);
+        BookingDecisionCandidate rejected = mock(BookingDecisionCandidate.class);
+        when(rejected.getId()).thenReturn(booking.getId());
+        when(rejected.getStatus()).thenReturn(BookingStatus.REJECTED);
+        when(bookingRepository.findDecisionCandidates(anyCollection())).thenReturn(List.of(waiting))
+                .thenReturn(List.of(rejected));
+        when(bookingRepository.updateWaitingStatuses(anyCollection(), anyCollection(), any(), any())).thenReturn(0);
+
+        List<BookingDecisionResultDto> results = List.copyOf(bookingService.updateAll(owner.getId(),
+                List.of(BookingDecisionDto.builder().bookingId(booking.getId()).approved(true).build())));
+
+        assertEquals(1, results.size());
+        assertNull(results.getFirst().getStatus());
+        assertNotNull(results.getFirst().getError());
+        verify(bookingIntervalIndex, never()).add(anyLong(), any(), any());
+    }
+
+    @Test
+    void updateBooking_shouldThrowBadRequestException_whenApprovalViolatesExclusionConstraint() {
+        booking.setStatus(BookingStatus.WAITING);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
+        when(bookingRepository.save(booking))
+                .thenThrow(new DataIntegrityViolationException("exclusion", new SQLException("conflicting key value", "23P01")));
+
+        assertThrows(BadRequestException.class, () -> bookingService.update(owner.getId(), booking.getId(), true));
+        verify(bookingIntervalIndex, never()).add(anyLong(), any(), any());
+    }
+
+    @Test
+    void updateAll_shouldThrowBadRequestException_whenApprovalsViolateExclusionConstraint() {
+        BookingDecisionCandidate candidate = mock(BookingDecisionCandidate.class);
+        when(candidate.getId()).thenReturn(booking.getId());
+        when(candidate.getOwnerId()).thenReturn(owner.getId());
+        when(candidate.getStatus()).thenReturn(BookingStatus.WAITING);
+        when(bookingRepository.findDecisionCandidates(anyCollection())).thenReturn(List.of(candidate));
+        when(bookingRepository.updateWaitingStatuses(anyCollection(), anyCollection(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("exclusion", new SQLException("conflicting key value", "23P01")));
+
+        assertThrows(BadRequestException.class, () -> bookingService.updateAll(owner.getId(),
+                List.of(BookingDecisionDto.builder().bookingId(booking.getId()).approved(true).build())));
+        verify(bookingIntervalIndex, never()).add(anyLong(), any(), any());
+    }
+
+    @Test
+    void updateBooking_shouldRethrow_whenOtherIntegrityViolation() {
+        booking.setStatus(BookingStatus.WAITING);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
+        when(bookingRepository.save(booking))
+                .thenThrow(new DataIntegrityViolationException("fk", new SQLException("foreign key", "23503")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.update(owner.getId(), booking.getId(), true));
     }
 
     @Test
@@ -326,4 +477,15 @@ class BookingServiceImplTest {
         assertThrows(NotAllowedException.class, () -> bookingService.update(owner.getId(), booking.getId(), true));
         verify(bookingRepository, never()).save(any(Booking.class));
     }
+
+    private Booking waitingBookingCopy() {
+        return Booking.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .item(item)
+                .build();
+    }
 }
@@ -8,10 +8,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingCartDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -20,11 +25,14 @@ import ru.practicum.shareit.user.model.User;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
 @Transactional
@@ -147,4 +155,180 @@ class BookingServiceIntegrationTest {
             )));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void findBookingsByState_shouldSelectBookingsOfRequestedStateOnly() {
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto pastBooking = createBooking(now.minusDays(10), now.minusDays(9), true);
+        BookingDto currentBooking = createBooking(now.minusDays(1), now.plusDays(1), true);
+        BookingDto futureBooking = createBooking(now.plusDays(5), now.plusDays(6), true);
+        BookingDto waitingBooking = createBooking(now.plusDays(10), now.plusDays(11), null);
+        BookingDto rejectedBooking = createBooking(now.plusDays(20), now.plusDays(21), false);
+
+        assertThat(bookingIds(BookingState.ALL), contains(rejectedBooking.getId(), waitingBooking.getId(),
+                futureBooking.getId(), currentBooking.getId(), pastBooking.getId()));
+        assertThat(bookingIds(BookingState.CURRENT), contains(currentBooking.getId()));
+        assertThat(bookingIds(BookingState.PAST), contains(pastBooking.getId()));
+        assertThat(bookingIds(BookingState.FUTURE), contains(futureBooking.getId(), currentBooking.getId()));
+        assertThat(bookingIds(BookingState.WAITING), contains(waitingBooking.getId()));
+        assertThat(bookingIds(BookingState.REJECTED), contains(rejectedBooking.getId()));
+    }
+
+    @Test
+    void findBookingsOwnerByStateAfter_shouldWalkAllBookingsByCursor() {
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+        List<Long> expectedIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expectedIds.add(0, createBooking(start.plusDays(i), start.plusDays(i).plusHours(1), null).getId());
+        }
+
+        List<Long> actualIds = new ArrayList<>();
+        String after = "";
+        do {
+            BookingSliceDto slice = bookingService.findBookingsOwnerByStateAfter(owner.getId(), BookingState.WAITING, after, 2);
+            slice.getContent().forEach(bookingDto -> actualIds.add(bookingDto.getId()));
+            after = slice.getNextCursor();
+        } while (after != null);
+
+        assertThat(actualIds, equalTo(expectedIds));
+    }
+
+    @Test
+    void updateAll_shouldApplyValidDecisionsAndReportTheRest() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto approvedBooking = createBooking(start, start.plusHours(1), null);
+        BookingDto rejectedBooking = createBooking(start.plusDays(1), start.plusDays(1).plusHours(1), null);
+        BookingDto alreadyApprovedBooking = createBooking(start.plusDays(2), start.plusDays(2).plusHours(1), true);
+        Long unknownBookingId = alreadyApprovedBooking.getId() + 100;
+
+        List<BookingDecisionResultDto> results = new ArrayList<>(bookingService.updateAll(owner.getId(), List.of(
+                BookingDecisionDto.builder().bookingId(approvedBooking.getId()).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(rejectedBooking.getId()).approved(false).build(),
+                BookingDecisionDto.builder().bookingId(alreadyApprovedBooking.getId()).approved(false).build(),
+                BookingDecisionDto.builder().bookingId(unknownBookingId).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(approvedBooking.getId()).approved(false).build())));
+        em.clear();
+
+        assertThat(results.stream().map(BookingDecisionResultDto::getStatus).toList(),
+                contains("APPROVED", "REJECTED", null, null, null));
+        assertThat(results.stream().map(BookingDecisionResultDto::getError).toList(),
+                contains(nullValue(), nullValue(), notNullValue(), notNullValue(), notNullValue()));
+        assertThat(bookingService.findBookingById(owner.getId(), approvedBooking.getId()).getStatus(), equalTo("APPROVED"));
+        assertThat(bookingService.findBookingById(owner.getId(), rejectedBooking.getId()).getStatus(), equalTo("REJECTED"));
+        assertThat(bookingService.findBookingById(owner.getId(), alreadyApprovedBooking.getId()).getStatus(), equalTo("APPROVED"));
+    }
+
+    @Test
+    void updateAll_shouldReportOverlappingApprovals_andApplyTheRest() {
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+        BookingDto overlapsApproved = createBooking(start, start.plusHours(2), null);
+        createBooking(start.plusHours(1), start.plusHours(3), true);
+        BookingDto firstInBatch = createBooking(start.plusDays(1), start.plusDays(1).plusHours(2), null);
+        BookingDto overlapsFirstInBatch = createBooking(start.plusDays(1).plusHours(1), start.plusDays(1).plusHours(3), null);
+        BookingDto rejected = createBooking(start.plusDays(1), start.plusDays(1).plusHours(1), null);
+
+        List<BookingDecisionResultDto> results = new ArrayList<>(bookingService.updateAll(owner.getId(), List.of(
+                BookingDecisionDto.builder().bookingId(overlapsApproved.getId()).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(firstInBatch.getId()).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(overlapsFirstInBatch.getId()).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(rejected.getId()).approved(false).build())));
+        em.clear();
+
+        assertThat(results.stream().map(BookingDecisionResultDto::getStatus).toList(),
+                contains(null, "APPROVED", null, "REJECTED"));
+        assertThat(results.stream().map(BookingDecisionResultDto::getError).toList(),
+                contains(notNullValue(), nullValue(), notNullValue(), nullValue()));
+        assertThat(bookingService.findBookingById(owner.getId(), overlapsApproved.getId()).getStatus(), equalTo("WAITING"));
+        assertThat(bookingService.findBookingById(owner.getId(), firstInBatch.getId()).getStatus(), equalTo("APPROVED"));
+        assertThat(bookingService.findBookingById(owner.getId(), overlapsFirstInBatch.getId()).getStatus(), equalTo("WAITING"));
+        assertThat(bookingService.findBookingById(owner.getId(), rejected.getId()).getStatus(), equalTo("REJECTED"));
+    }
+
+    @Test
+    void updateAll_shouldNotTouchBookingsOfOtherOwners() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto waitingBooking = createBooking(start, start.plusHours(1), null);
+
+        Collection<BookingDecisionResultDto> results = bookingService.updateAll(booker.getId(), List.of(
+                BookingDecisionDto.builder().bookingId(waitingBooking.getId()).approved(false).build()));
+        em.clear();
+
+        assertThat(results, contains(hasProperty("error", notNullValue())));
+        assertThat(bookingService.findBookingById(owner.getId(), waitingBooking.getId()).getStatus(), equalTo("WAITING"));
+    }
+
+    @Test
+    void createAll_shouldBookEveryItemOfTheCart() {
+        Item secondItem = Item.builder()
+                .name("second item").description("second item description").available(true).owner(owner).build();
+        em.persist(secondItem);
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+        LocalDateTime end = start.plusHours(3);
+
+        Collection<BookingDto> bookingDtos = bookingService.createAll(booker.getId(), BookingCartDto.builder()
+                .start(start)
+                .end(end)
+                .itemIds(List.of(item.getId(), secondItem.getId()))
+                .build());
+        em.clear();
+
+        assertThat(bookingDtos, hasSize(2));
+        for (BookingDto bookingDto : bookingDtos) {
+            BookingDto storedBookingDto = bookingService.findBookingById(booker.getId(), bookingDto.getId());
+            assertThat(storedBookingDto, equalTo(bookingDto));
+            assertThat(storedBookingDto.getStart(), equalTo(start));
+            assertThat(storedBookingDto.getStatus(), equalTo("WAITING"));
+        }
+        assertThat(bookingDtos.stream().map(bookingDto -> bookingDto.getItem().getId()).toList(),
+                contains(item.getId(), secondItem.getId()));
+    }
+
+    @Test
+    void createAll_shouldBookNothing_whenAnyItemIsAlreadyBooked() {
+        Item secondItem = Item.builder()
+                .name("second item").description("second item description").available(true).owner(owner).build();
+        em.persist(secondItem);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        createBooking(start, start.plusHours(3), true);
+
+        assertThrows(BadRequestException.class, () -> bookingService.createAll(booker.getId(), BookingCartDto.builder()
+                .start(start.plusHours(1))
+                .end(start.plusHours(2))
+                .itemIds(List.of(secondItem.getId(), item.getId()))
+                .build()));
+        assertThat(bookingService.findBookingsOwnerByState(owner.getId(), BookingState.ALL, 0, 10), hasSize(1));
+    }
+
+    @Test
+    void exportOwnerBookings_shouldStreamOwnerBookingsInStartOrder() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto later = createBooking(start.plusDays(5), start.plusDays(6), true);
+        BookingDto earlier = createBooking(start, start.plusHours(3), null);
+        List<BookingDto> exported = new ArrayList<>();
+
+        bookingService.exportOwnerBookings(owner.getId(), exported::add);
+
+        assertThat(exported.stream().map(BookingDto::getId).toList(), contains(earlier.getId(), later.getId()));
+        assertThat(exported.get(0).getItem().getId(), equalTo(item.getId()));
+        assertThat(exported.get(1).getStatus(), equalTo(BookingStatus.APPROVED.name()));
+
+        List<BookingDto> exportedForBooker = new ArrayList<>();
+        bookingService.exportOwnerBookings(booker.getId(), exportedForBooker::add);
+        assertThat(exportedForBooker, empty());
+    }
+
+    private BookingDto createBooking(LocalDateTime start, LocalDateTime end, Boolean approved) {
+        BookingDto bookingDto = bookingService.create(booker.getId(), BookingShortDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(end)
+                .build());
+        return approved == null ? bookingDto : bookingService.update(owner.getId(), bookingDto.getId(), approved);
+    }
+
+    private List<Long> bookingIds(BookingState state) {
+        return bookingService.findBookingsByState(booker.getId(), state, 0, 10).stream()
+                .map(BookingDto::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.booking.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-state latency of the former single OR-chain listing statement against the per-state statements
+ * built from {@code BookingSpecifications}, over a generated bookings table in in-memory H2.
+ * Run {@link #main} after {@code mvn test-compile}, e.g. from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingStateQueryBenchmark {
+    static final int BOOKERS = 100;
+    static final int PAGE_SIZE = 10;
+    static final String[] STATUSES = {"APPROVED", "APPROVED", "APPROVED", "WAITING", "REJECTED"};
+    static final String ORDER_AND_LIMIT = " order by start_date desc, id desc limit " + PAGE_SIZE;
+    static final String OR_CHAIN_SQL = "select * from bookings where booker_id = ?" +
+            "  and (? = 'ALL'" +
+            "    or ? = 'CURRENT' and current_timestamp between start_date and end_date" +
+            "    or ? = 'PAST' and status = 'APPROVED' and end_date < current_timestamp" +
+            "    or ? = 'FUTURE' and status = 'APPROVED' and end_date >= current_timestamp" +
+            "    or ? = 'WAITING' and status = 'WAITING'" +
+            "    or ? = 'REJECTED' and status = 'REJECTED')" + ORDER_AND_LIMIT;
+    static final Map<BookingState, String> STATE_SQL = new EnumMap<>(Map.of(
+            BookingState.ALL, "select * from bookings where booker_id = ?" + ORDER_AND_LIMIT,
+            BookingState.CURRENT, "select * from bookings where booker_id = ?" +
+                    " and start_date <= localtimestamp and end_date >= localtimestamp" + ORDER_AND_LIMIT,
+            BookingState.PAST, "select * from bookings where booker_id = ?" +
+                    " and status = 'APPROVED' and end_date < localtimestamp" + ORDER_AND_LIMIT,
+            BookingState.FUTURE, "select * from bookings where booker_id = ?" +
+                    " and status = 'APPROVED' and end_date >= localtimestamp" + ORDER_AND_LIMIT,
+            BookingState.WAITING, "select * from bookings where booker_id = ? and status = 'WAITING'" + ORDER_AND_LIMIT,
+            BookingState.REJECTED, "select * from bookings where booker_id = ? and status = 'REJECTED'" + ORDER_AND_LIMIT));
+
+    @Param({"100000"})
+    int bookings;
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    BookingState state;
+
+    Connection connection;
+    PreparedStatement orChainStatement;
+    PreparedStatement stateStatement;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:booking-state-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bookings");
+            statement.execute("create table bookings(id bigint generated always as identity primary key, " +
+                    "start_date timestamp, end_date timestamp, item_id bigint, booker_id bigint, status varchar(50))");
+            statement.execute("create index ix_bookings_booker_start on bookings(booker_id, start_date desc, id desc)");
+        }
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into bookings(start_date, end_date, item_id, booker_id, status) values (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < bookings; i++) {
+                LocalDateTime start = now.plusHours(random.nextInt(24 * 365 * 2) - 24 * 365);
+                insert.setTimestamp(1, Timestamp.valueOf(start));
+                insert.setTimestamp(2, Timestamp.valueOf(start.plusHours(1 + random.nextInt(72))));
+                insert.setLong(3, random.nextInt(bookings / 10 + 1));
+                insert.setLong(4, random.nextInt(BOOKERS));
+                insert.setString(5, STATUSES[random.nextInt(STATUSES.length)]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        orChainStatement = connection.prepareStatement(OR_CHAIN_SQL);
+        stateStatement = connection.prepareStatement(STATE_SQL.get(state));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        orChainStatement.close();
+        stateStatement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public void orChainQuery(Blackhole blackhole) throws SQLException {
+        orChainStatement.setLong(1, next++ % BOOKERS);
+        for (int i = 2; i <= 7; i++) {
+            orChainStatement.setString(i, state.name());
+        }
+        consume(orChainStatement, blackhole);
+    }
+
+    @Benchmark
+    public void stateQuery(Blackhole blackhole) throws SQLException {
+        stateStatement.setLong(1, next++ % BOOKERS);
+        consume(stateStatement, blackhole);
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getLong(1));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BookingStateQueryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    TimingWheel<Long> wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel<>(Duration.ofMinutes(1), 60, BASE);
+    }
+
+    @Test
+    void advance_shouldReturnPayloadsOnlyOnceTheyAreDue() {
+        wheel.schedule(BASE.plusSeconds(90), 1L);
+        wheel.schedule(BASE.plusMinutes(5), 2L);
+
+        assertEquals(List.of(), wheel.advance(BASE.plusSeconds(100)));
+        assertEquals(List.of(1L), wheel.advance(BASE.plusMinutes(2)));
+        assertEquals(List.of(), wheel.advance(BASE.plusMinutes(2)));
+        assertEquals(List.of(2L), wheel.advance(BASE.plusMinutes(30)));
+    }
+
+    @Test
+    void schedule_shouldDeliverOverduePayloadOnNextTick() {
+        wheel.advance(BASE.plusMinutes(10));
+
+        assertTrue(wheel.schedule(BASE.plusMinutes(3), 1L));
+
+        assertEquals(List.of(), wheel.advance(BASE.plusMinutes(10).plusSeconds(30)));
+        assertEquals(List.of(1L), wheel.advance(BASE.plusMinutes(11)));
+    }
+
+    @Test
+    void schedule_shouldRejectPayloadBeyondHorizon() {
+        assertEquals(BASE.plusMinutes(60), wheel.getHorizon());
+        assertTrue(wheel.schedule(BASE.plusMinutes(60), 1L));
+        assertFalse(wheel.schedule(BASE.plusMinutes(60).plusSeconds(1), 2L));
+
+        wheel.advance(BASE.plusMinutes(30));
+
+        assertEquals(BASE.plusMinutes(90), wheel.getHorizon());
+        assertTrue(wheel.schedule(BASE.plusMinutes(75), 2L));
+    }
+
+    @Test
+    void advance_shouldDrainWholeWheel_whenClockJumpsPastHorizon() {
+        wheel.schedule(BASE.plusMinutes(10), 1L);
+        wheel.schedule(BASE.plusMinutes(59), 2L);
+
+        assertEquals(List.of(1L, 2L), wheel.advance(BASE.plusDays(1)));
+        assertEquals(List.of(), wheel.advance(BASE.plusDays(1).plusMinutes(59)));
+    }
+}
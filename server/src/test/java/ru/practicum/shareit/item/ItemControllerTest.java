@@ -10,22 +10,37 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+import ru.practicum.shareit.item.dto.ItemPhotoDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.model.ItemSort;
+import ru.practicum.shareit.item.service.ItemPhotoService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.common.CommonConstants.X_SHARER_USER_ID;
 
@@ -39,6 +54,9 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemPhotoService itemPhotoService;
+
 
     @Test
     @SneakyThrows
@@ -50,7 +68,7 @@ class ItemControllerTest {
         Boolean available = true;
         ItemDto expectedItemDto = ItemDto.builder().id(id).name(name).description(description).available(available).build();
         Collection<ItemDto> expectedItemDtos = List.of(expectedItemDto);
-        Mockito.doReturn(List.of(ItemDto.builder().id(id).name(name).description(description).available(available).build())).when(itemService).findAllItemsByOwnerId(userId);
+        Mockito.doReturn(List.of(ItemDto.builder().id(id).name(name).description(description).available(available).build())).when(itemService).findAllItemsByOwnerId(userId, 0, 10, ItemSort.DEFAULT);
 
         MvcResult mvcResult = mockMvc.perform(get("/items")
                         .header(X_SHARER_USER_ID, userId)
@@ -64,6 +82,32 @@ class ItemControllerTest {
         Assertions.assertIterableEquals(expectedItemDtos, actualItemDto);
     }
 
+    @Test
+    @SneakyThrows
+    void importItemsTest() {
+        long userId = 10L;
+        String body = "{\"row\":1,\"name\":\"drill\",\"description\":\"cordless\",\"available\":true}\n" +
+                "{\"row\":2,\"name\":\"saw\",\"description\":\"hand saw\",\"available\":false,\"requestId\":5}\n";
+        List<ItemImportRowDto> rows = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            Iterator<ItemImportRowDto> iterator = invocation.getArgument(1);
+            iterator.forEachRemaining(rows::add);
+            return ItemImportResultDto.builder().imported(2).errors(List.of()).build();
+        }).when(itemService).importItems(eq(userId), any());
+
+        mockMvc.perform(post("/items/import")
+                        .header(X_SHARER_USER_ID, userId)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        Assertions.assertEquals(List.of(
+                ItemImportRowDto.builder().row(1L).name("drill").description("cordless").available(true).build(),
+                ItemImportRowDto.builder().row(2L).name("saw").description("hand saw").available(false).requestId(5L).build()), rows);
+    }
+
     @Test
     @SneakyThrows
     void findItemByIdTest() {
@@ -98,7 +142,7 @@ class ItemControllerTest {
         Boolean available = true;
         ItemShortDto expectedItemShortDto = ItemShortDto.builder().id(id).name(name).description(description).available(available).build();
         Collection<ItemShortDto> expectedItemShortDtos = List.of(expectedItemShortDto);
-        Mockito.doReturn(List.of(ItemDto.builder().id(id).name(name).description(description).available(available).build())).when(itemService).searchItems(anyString());
+        Mockito.doReturn(List.of(ItemDto.builder().id(id).name(name).description(description).available(available).build())).when(itemService).searchItems(anyString(), isNull(), anyInt(), anyInt(), eq(ItemSort.DEFAULT));
 
         MvcResult mvcResult = mockMvc.perform(get("/items/search?text={text}",text)
                         .accept(MediaType.APPLICATION_JSON))
@@ -174,7 +218,7 @@ class ItemControllerTest {
         String text = "text";
         String authorName = "author";
         LocalDateTime created = LocalDateTime.now();
-        CommentShortDto commentToAddShortDto = new CommentShortDto(text);
+        CommentShortDto commentToAddShortDto = new CommentShortDto(text, null);
         CommentDto expectedCommentDto = CommentDto.builder()
                 .id(id).authorName(authorName).text(text).created(created).build();
         Mockito.when(itemService.addComment(anyLong(), anyLong(), any(CommentShortDto.class))).thenReturn(
@@ -194,4 +238,156 @@ class ItemControllerTest {
         Assertions.assertNotNull(actualCommentShortDto);
         Assertions.assertEquals(expectedCommentDto, actualCommentShortDto);
     }
-}
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void findAvailabilityTest() {
+        long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        List<AvailabilitySlotDto> expectedSlots = List.of(
+                AvailabilitySlotDto.builder().start(from).end(from.plusHours(2)).status("BUSY").build(),
+                AvailabilitySlotDto.builder().start(from.plusHours(2)).end(to).status("FREE").build());
+        Mockito.doAnswer(invocation -> {
+            Consumer<AvailabilitySlotDto> action = invocation.getArgument(3);
+            expectedSlots.forEach(action);
+            return null;
+        }).when(itemService).findAvailability(eq(itemId), eq(from), eq(to), any());
+
+        MvcResult asyncResult = mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult mvcResult = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Mockito.verify(itemService).checkAvailabilityPeriod(itemId, from, to);
+        String responseBody = mvcResult.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<AvailabilitySlotDto> actualSlots = mapper.readValue(responseBody, new TypeReference<>() {
+        });
+        Assertions.assertEquals(expectedSlots, actualSlots);
+    }
+
+    @Test
+    @SneakyThrows
+    void exportItemsTest() {
+        long userId = 1L;
+        List<ItemShortDto> expectedItems = List.of(
+                ItemShortDto.builder().id(1L).name("drill").description("cordless drill").available(true).build(),
+                ItemShortDto.builder().id(2L).name("saw").description("hand saw").available(false).build());
+        Mockito.doAnswer(invocation -> {
+            Consumer<ItemShortDto> action = invocation.getArgument(1);
+            expectedItems.forEach(action);
+            return null;
+        }).when(itemService).exportItems(eq(userId), any());
+
+        MvcResult asyncResult = mockMvc.perform(get("/items/export")
+                        .header(X_SHARER_USER_ID, userId)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult mvcResult = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        Mockito.verify(itemService).checkOwnerExists(userId);
+        String[] lines = mvcResult.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        List<ItemShortDto> actualItems = new ArrayList<>();
+        for (String line : lines) {
+            actualItems.add(mapper.readValue(line, ItemShortDto.class));
+        }
+        Assertions.assertEquals(expectedItems, actualItems);
+    }
+
+    @Test
+    @SneakyThrows
+    void downloadPhotoTest() {
+        String hash = "a".repeat(64);
+        byte[] content = "0123456789".getBytes(StandardCharsets.US_ASCII);
+        Mockito.doReturn(ItemPhotoDto.builder().id(1L).itemId(2L).hash(hash).contentType(MediaType.IMAGE_PNG_VALUE).size(10L).build())
+                .when(itemPhotoService).findPhoto(2L, hash);
+        Mockito.doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(3);
+            outputStream.write(content, (int) (long) invocation.getArgument(1), (int) (long) invocation.getArgument(2));
+            return null;
+        }).when(itemPhotoService).transferPhoto(eq(hash), anyLong(), anyLong(), any());
+
+        MvcResult asyncResult = mockMvc.perform(get("/items/2/photos/" + hash))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(content));
+
+        asyncResult = mockMvc.perform(get("/items/2/photos/" + hash).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("2345"));
+
+        asyncResult = mockMvc.perform(get("/items/2/photos/" + hash)
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(content));
+
+        Mockito.doReturn(ItemPhotoDto.builder().id(1L).itemId(2L).hash(hash).contentType("image/svg+xml").size(10L).build())
+                .when(itemPhotoService).findPhoto(2L, hash);
+        asyncResult = mockMvc.perform(get("/items/2/photos/" + hash))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM));
+    }
+
+    @Test
+    @SneakyThrows
+    void uploadPhotoTest() {
+        Mockito.doReturn(ItemPhotoDto.builder().id(1L).itemId(2L).hash("a".repeat(64)).contentType(MediaType.IMAGE_PNG_VALUE).size(3L).build())
+                .when(itemPhotoService).upload(eq(1L), eq(2L), startsWith(MediaType.IMAGE_PNG_VALUE), any());
+
+        mockMvc.perform(post("/items/2/photos")
+                        .header(X_SHARER_USER_ID, 1L)
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content(new byte[3]))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1L));
+        mockMvc.perform(post("/items/2/photos")
+                        .header(X_SHARER_USER_ID, 1L)
+                        .contentType("image/svg+xml")
+                        .content("<svg/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @SneakyThrows
+    void downloadPhoto_shouldAnswerNotModifiedAndUnsatisfiableRange() {
+        String hash = "b".repeat(64);
+        Mockito.doReturn(ItemPhotoDto.builder().id(1L).itemId(2L).hash(hash).contentType(MediaType.IMAGE_JPEG_VALUE).size(10L).build())
+                .when(itemPhotoService).findPhoto(2L, hash);
+
+        mockMvc.perform(get("/items/2/photos/" + hash).header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""));
+        mockMvc.perform(get("/items/2/photos/" + hash).header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+        Mockito.verify(itemPhotoService, Mockito.never()).transferPhoto(any(), anyLong(), anyLong(), any());
+    }
+}
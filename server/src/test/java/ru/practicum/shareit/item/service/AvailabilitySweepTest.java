@@ -0,0 +1,67 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AvailabilitySweepTest {
+    static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    List<AvailabilitySlotDto> slots;
+    AvailabilitySweep sweep;
+
+    @BeforeEach
+    void setUp() {
+        slots = new ArrayList<>();
+        sweep = new AvailabilitySweep(hour(10), hour(20), slots::add);
+    }
+
+    @Test
+    void finish_shouldReturnSingleFreeSlot_whenNothingIsBooked() {
+        sweep.finish();
+
+        assertEquals(List.of(slot(10, 20, "FREE")), slots);
+    }
+
+    @Test
+    void accept_shouldMergeOverlappingPeriodsAndEmitGaps() {
+        sweep.accept(hour(11), hour(13));
+        sweep.accept(hour(12), hour(14));
+        sweep.accept(hour(13), hour(13));
+        sweep.accept(hour(16), hour(17));
+        sweep.finish();
+
+        assertEquals(List.of(
+                slot(10, 11, "FREE"),
+                slot(11, 14, "BUSY"),
+                slot(14, 16, "FREE"),
+                slot(16, 17, "BUSY"),
+                slot(17, 20, "FREE")), slots);
+    }
+
+    @Test
+    void accept_shouldClipPeriodsToRequestedRange() {
+        sweep.accept(hour(5), hour(12));
+        sweep.accept(hour(18), hour(30));
+        sweep.finish();
+
+        assertEquals(List.of(
+                slot(10, 12, "BUSY"),
+                slot(12, 18, "FREE"),
+                slot(18, 20, "BUSY")), slots);
+    }
+
+    private static LocalDateTime hour(int hour) {
+        return BASE.plusHours(hour);
+    }
+
+    private static AvailabilitySlotDto slot(int start, int end, String status) {
+        return AvailabilitySlotDto.builder().start(hour(start)).end(hour(end)).status(status).build();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.GeoCircle;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoHashTest {
+    static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    @Test
+    void encode_shouldMatchBase32Geohash() {
+        assertEquals("u4pruydqqvj", toBase32(GeoHash.encode(57.64911, 10.40744), 11));
+        assertEquals("ezs42", toBase32(GeoHash.encode(42.6, -5.6), 5));
+    }
+
+    @Test
+    void cover_shouldHoldEveryPointOfCircle_inAtMostFourCells() {
+        GeoCircle circle = new GeoCircle(55.7558, 37.6173, 5);
+        int precision = GeoHash.coveringPrecision(circle);
+        Set<Long> cells = GeoHash.cover(circle, precision);
+
+        assertTrue(cells.size() <= 4);
+        for (double latitude = circle.getMinLatitude(); latitude <= circle.getMaxLatitude(); latitude += 0.005) {
+            for (double longitude = circle.getMinLongitude(); longitude <= circle.getMaxLongitude(); longitude += 0.005) {
+                if (circle.contains(latitude, longitude)) {
+                    assertTrue(isCovered(cells, precision, GeoHash.encode(latitude, longitude)), latitude + "," + longitude);
+                }
+            }
+        }
+        assertFalse(isCovered(cells, precision, GeoHash.encode(55.7558, 38.6173)));
+    }
+
+    @Test
+    void cover_shouldSpanAllLongitudes_whenCircleCrossesAntimeridian() {
+        GeoCircle circle = new GeoCircle(0, 179.99, 10);
+        int precision = GeoHash.coveringPrecision(circle);
+
+        assertEquals(-180, circle.getMinLongitude());
+        assertEquals(180, circle.getMaxLongitude());
+        assertTrue(circle.contains(0, -179.99));
+        assertTrue(isCovered(GeoHash.cover(circle, precision), precision, GeoHash.encode(0, -179.99)));
+    }
+
+    private static boolean isCovered(Set<Long> cells, int precision, long hash) {
+        return cells.stream().anyMatch(cell -> GeoHash.firstIn(cell, precision) <= hash && hash <= GeoHash.lastIn(cell, precision));
+    }
+
+    private static String toBase32(long hash, int precision) {
+        StringBuilder base32 = new StringBuilder();
+        for (int i = 1; i <= precision; i++) {
+            base32.append(BASE32.charAt((int) (hash >>> (GeoHash.BITS - 5 * i)) & 31));
+        }
+        return base32.toString();
+    }
+}
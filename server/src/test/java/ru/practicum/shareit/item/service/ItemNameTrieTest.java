@@ -0,0 +1,73 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemNameTrieTest {
+    ItemNameTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new ItemNameTrie(3);
+    }
+
+    @Test
+    void suggest_shouldMatchPrefixesEndingInsideAndBetweenEdges() {
+        trie.put(item(1L, "Drill"), 0);
+        trie.put(item(2L, "Drill press"), 0);
+        trie.put(item(3L, "Driver"), 0);
+        trie.put(item(4L, "Saw"), 0);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(trie.suggest("dr", 10)));
+        assertEquals(List.of(1L, 2L, 3L), ids(trie.suggest("DRI", 10)));
+        assertEquals(List.of(1L, 2L), ids(trie.suggest("drill", 10)));
+        assertEquals(List.of(2L), ids(trie.suggest("drill p", 10)));
+        assertEquals(List.of(), ids(trie.suggest("drilx", 10)));
+        assertEquals(List.of(), ids(trie.suggest("drill press stand", 10)));
+        assertEquals(List.of(1L, 2L), ids(trie.suggest("d", 2)));
+    }
+
+    @Test
+    void suggest_shouldKeepTopKByPopularityThenName() {
+        trie.put(item(1L, "Drill"), 1);
+        trie.put(item(2L, "Drill press"), 7);
+        trie.put(item(3L, "Driver"), 7);
+        trie.put(item(4L, "Dryer"), 3);
+
+        assertEquals(List.of(2L, 3L, 4L), ids(trie.suggest("d", 10)));
+        assertEquals(List.of(2L, 3L, 1L), ids(trie.suggest("dri", 10)));
+    }
+
+    @Test
+    void remove_shouldRerankAndCompactPath() {
+        trie.put(item(1L, "Drill"), 5);
+        trie.put(item(2L, "Drill press"), 7);
+        trie.put(item(3L, "Driver"), 1);
+        trie.put(item(4L, "Dryer"), 3);
+
+        trie.remove(2L);
+        assertEquals(List.of(1L, 4L, 3L), ids(trie.suggest("d", 10)));
+
+        trie.remove(1L);
+        assertEquals(List.of(3L), ids(trie.suggest("dri", 10)));
+        assertEquals(List.of(), ids(trie.suggest("drill", 10)));
+
+        trie.put(item(3L, "Drum"), 1);
+        assertEquals(List.of(4L, 3L), ids(trie.suggest("dr", 10)));
+        assertEquals(List.of(), ids(trie.suggest("driv", 10)));
+        assertEquals(2, trie.size());
+    }
+
+    private static ItemShortDto item(Long id, String name) {
+        return ItemShortDto.builder().id(id).name(name).available(true).build();
+    }
+
+    private static List<Long> ids(List<ItemShortDto> items) {
+        return items.stream().map(ItemShortDto::getId).toList();
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.item.dto.ItemPhotoDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemPhoto;
+import ru.practicum.shareit.item.repository.ItemPhotoRepository;
+import ru.practicum.shareit.item.repository.ItemPhotoStorage;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemPhotoServiceImplTest {
+    static final String HASH = "a".repeat(64);
+
+    ItemPhotoRepository itemPhotoRepository;
+    ItemPhotoStorage itemPhotoStorage;
+    ItemPhotoService itemPhotoService;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        itemPhotoRepository = mock(ItemPhotoRepository.class);
+        itemPhotoStorage = mock(ItemPhotoStorage.class);
+        itemPhotoService = new ItemPhotoServiceImpl(itemRepository, userRepository, itemPhotoRepository, itemPhotoStorage);
+
+        User owner = User.builder().id(1L).name("owner").email("owner@test.com").build();
+        item = Item.builder().id(2L).name("camera").available(true).owner(owner).build();
+        when(userRepository.getUserById(1L)).thenReturn(owner);
+        when(itemRepository.getItemById(2L)).thenReturn(item);
+        when(itemPhotoStorage.store(any(InputStream.class))).thenReturn(HASH);
+        when(itemPhotoStorage.sizeOf(HASH)).thenReturn(10L);
+    }
+
+    @Test
+    void upload_shouldReturnPhotoRecordedByConcurrentUpload_whenSaveHitsUniqueConstraint() {
+        ItemPhoto recorded = ItemPhoto.builder().id(3L).item(item).hash(HASH).contentType(MediaType.IMAGE_PNG_VALUE).size(10L).build();
+        when(itemPhotoRepository.findByItemIdAndHash(2L, HASH)).thenReturn(Optional.empty(), Optional.of(recorded));
+        when(itemPhotoRepository.save(any(ItemPhoto.class))).thenThrow(new DataIntegrityViolationException("item_photos_item_id_hash_key"));
+
+        ItemPhotoDto photo = itemPhotoService.upload(1L, 2L, MediaType.IMAGE_PNG_VALUE, new ByteArrayInputStream(new byte[10]));
+
+        assertEquals(3L, photo.getId());
+        assertEquals(HASH, photo.getHash());
+    }
+
+    @Test
+    void upload_shouldRethrowViolation_whenNoPhotoWasRecordedMeanwhile() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("item_photos_item_id_fkey");
+        when(itemPhotoRepository.findByItemIdAndHash(2L, HASH)).thenReturn(Optional.empty());
+        when(itemPhotoRepository.save(any(ItemPhoto.class))).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> itemPhotoService.upload(1L, 2L, MediaType.IMAGE_PNG_VALUE, new ByteArrayInputStream(new byte[10]))));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemPhotoDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(properties = "shareit.item.photos.max-size=64B")
+@Transactional
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = {@Autowired})
+class ItemPhotoServiceIntegrationTest {
+
+    private final ItemPhotoService itemPhotoService;
+
+    private final EntityManager em;
+
+    User owner;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = User.builder().name("photo owner").email("photo-owner@test.com").build();
+        em.persist(owner);
+        item = Item.builder().name("camera").description("with photos").available(true).owner(owner).build();
+        em.persist(item);
+    }
+
+    @Test
+    void upload_shouldStoreBytesUnderTheirHash_once() throws IOException, NoSuchAlgorithmException {
+        byte[] content = "not really a png, but bytes all the same".getBytes(StandardCharsets.US_ASCII);
+        String expectedHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        ItemPhotoDto photo = itemPhotoService.upload(owner.getId(), item.getId(), MediaType.IMAGE_PNG_VALUE, new ByteArrayInputStream(content));
+        ItemPhotoDto again = itemPhotoService.upload(owner.getId(), item.getId(), MediaType.IMAGE_PNG_VALUE, new ByteArrayInputStream(content));
+
+        assertThat(photo.getHash(), equalTo(expectedHash));
+        assertThat(photo.getSize(), equalTo((long) content.length));
+        assertThat(photo.getContentType(), equalTo(MediaType.IMAGE_PNG_VALUE));
+        assertThat(again.getId(), equalTo(photo.getId()));
+        assertThat(itemPhotoService.findPhotos(item.getId()), contains(hasProperty("hash", equalTo(expectedHash))));
+        assertThat(itemPhotoService.findPhoto(item.getId(), expectedHash).getId(), equalTo(photo.getId()));
+
+        ByteArrayOutputStream whole = new ByteArrayOutputStream();
+        itemPhotoService.transferPhoto(expectedHash, 0, content.length, whole);
+        ByteArrayOutputStream part = new ByteArrayOutputStream();
+        itemPhotoService.transferPhoto(expectedHash, 4, 6, part);
+
+        assertThat(whole.toByteArray(), equalTo(content));
+        assertThat(part.toString(StandardCharsets.US_ASCII), equalTo("really"));
+    }
+
+    @Test
+    void upload_shouldRejectOtherUsersAndOversizedPhotos() {
+        User other = User.builder().name("other").email("photo-other@test.com").build();
+        em.persist(other);
+
+        Assertions.assertThrows(NotFoundException.class, () -> itemPhotoService.upload(other.getId(), item.getId(),
+                MediaType.IMAGE_PNG_VALUE, new ByteArrayInputStream(new byte[1])));
+        Assertions.assertThrows(BadRequestException.class, () -> itemPhotoService.upload(owner.getId(), item.getId(),
+                MediaType.IMAGE_PNG_VALUE, new ByteArrayInputStream(new byte[65])));
+        Assertions.assertThrows(NotFoundException.class, () -> itemPhotoService.findPhoto(item.getId(), "0".repeat(64)));
+        assertThat(itemPhotoService.findPhotos(item.getId()), empty());
+    }
+}
@@ -0,0 +1,196 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemBookingCount;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    ItemRepository itemRepository;
+    ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        index = new ItemSearchIndex(itemRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(index, "enabled", true);
+    }
+
+    @Test
+    void load_shouldMakeIndexReady_whenEnabled() {
+        when(itemRepository.streamSearchRows()).thenAnswer(invocation -> rows(item(1L, "Drill", "Cordless", true)));
+
+        index.load();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L), ids(index.search("drill", 0, 10)));
+    }
+
+    @Test
+    void load_shouldLeaveIndexNotReady_whenDisabled() {
+        ReflectionTestUtils.setField(index, "enabled", false);
+
+        index.load();
+
+        assertFalse(index.isReady());
+    }
+
+    @Test
+    void search_shouldMatchAllWordPrefixesCaseInsensitively_inIdOrder() {
+        index.put(item(3L, "Hammer drill", "Heavy, for concrete", true));
+        index.put(item(1L, "Drill", "Cordless drill-driver", true));
+        index.put(item(2L, "Ladder", "Three-step", true));
+
+        assertEquals(List.of(1L, 3L), ids(index.search("DRI", 0, 10)));
+        assertEquals(List.of(3L), ids(index.search("dri conc", 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("step", 0, 10)));
+        assertEquals(List.of(), ids(index.search("tep", 0, 10)));
+        assertEquals(List.of(), ids(index.search("!!", 0, 10)));
+    }
+
+    @Test
+    void search_shouldSkipUnavailableItems_andPage() {
+        index.put(item(1L, "Drill", null, true));
+        index.put(item(2L, "Drill", null, false));
+        index.put(item(3L, "Drill", null, true));
+        index.put(item(4L, "Drill", null, true));
+
+        assertEquals(List.of(1L, 3L), ids(index.search("drill", 0, 2)));
+        assertEquals(List.of(4L), ids(index.search("drill", 2, 2)));
+    }
+
+    @Test
+    void search_shouldCombineShortAndLongPostingLists() {
+        for (long id = 1; id <= 300; id++) {
+            index.put(item(id, "Drill", id % 3 == 0 ? "cordless" : id % 100 == 0 ? "driver" : null, id % 7 != 0));
+        }
+
+        assertEquals(List.of(100L, 200L), ids(index.search("drive", 0, 10)));
+        assertEquals(List.of(3L, 6L, 9L), ids(index.search("cord dri", 0, 3)));
+        assertEquals(List.of(297L, 300L), ids(index.search("dri cord", 84, 10)));
+        assertEquals(LongStream.rangeClosed(1, 300).filter(id -> id % 7 != 0).limit(50).boxed().toList(),
+                ids(index.search("dri", 0, 50)));
+
+        for (long id = 3; id <= 300; id += 3) {
+            index.put(item(id, "Saw", id == 60 ? "cordless" : null, true));
+        }
+        assertEquals(List.of(60L), ids(index.search("cordless", 0, 10)));
+        assertEquals(List.of(60L), ids(index.search("cordless saw", 0, 10)));
+        assertEquals(List.of(1L, 2L, 4L), ids(index.search("drill", 0, 3)));
+    }
+
+    @Test
+    void retainMatching_shouldKeepGivenIdsMatchingEveryWordPrefix() {
+        index.put(item(1L, "Hammer drill", "Heavy, for concrete", true));
+        index.put(item(2L, "Drill", "Cordless", false));
+        index.put(item(3L, "Ladder", null, true));
+
+        assertEquals(List.of(2L, 1L), index.retainMatching("dri", List.of(2L, 3L, 1L, 4L)));
+        assertEquals(List.of(1L), index.retainMatching("drill conc", List.of(1L, 2L)));
+        assertEquals(List.of(), index.retainMatching("!!", List.of(1L)));
+    }
+
+    @Test
+    void put_shouldReplacePreviousVersionOfItem() {
+        index.put(item(1L, "Drill", "Cordless", true));
+
+        index.put(item(1L, "Saw", "Cordless", false));
+        assertEquals(List.of(), ids(index.search("cordless", 0, 10)));
+
+        index.put(item(1L, "Saw", "Cordless", true));
+        assertEquals(List.of(), ids(index.search("drill", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("saw cordless", 0, 10)));
+        assertEquals("Saw", index.search("saw", 0, 10).get(0).getName());
+    }
+
+    @Test
+    void suggest_shouldRankAvailableNamesByApprovedBookings() {
+        ItemBookingCount drillBookings = mock(ItemBookingCount.class);
+        when(drillBookings.getItemId()).thenReturn(1L);
+        when(drillBookings.getBookings()).thenReturn(2L);
+        when(itemRepository.countApprovedBookingsPerItem()).thenReturn(List.of(drillBookings));
+        when(itemRepository.streamSearchRows()).thenAnswer(invocation -> rows(
+                item(1L, "Drill", null, true), item(2L, "Drill press", null, true), item(3L, "Drill bits", null, false)));
+        index.load();
+
+        assertEquals(List.of(1L, 2L), ids(index.suggest("dri", 10)));
+
+        index.put(item(1L, "Drill", null, false));
+        index.put(item(3L, "Drill bits", null, true));
+        assertEquals(List.of(3L, 2L), ids(index.suggest("dri", 10)));
+    }
+
+    @Test
+    void reconcile_shouldReplaceIndexWithRepositoryContents() {
+        index.put(item(1L, "Drill", null, true));
+        when(itemRepository.streamSearchRows()).thenAnswer(invocation -> rows(item(2L, "Drill", null, true)));
+        index.load();
+
+        index.reconcile();
+
+        assertEquals(List.of(2L), ids(index.search("drill", 0, 10)));
+    }
+
+    private static Item item(Long id, String name, String description, Boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).build();
+    }
+
+    private static Stream<ItemSearchRow> rows(Item... items) {
+        return Stream.of(items).map(item -> new ItemSearchRow() {
+            @Override
+            public Long getId() {
+                return item.getId();
+            }
+
+            @Override
+            public String getName() {
+                return item.getName();
+            }
+
+            @Override
+            public String getDescription() {
+                return item.getDescription();
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return item.getAvailable();
+            }
+
+            @Override
+            public Long getRequestId() {
+                return null;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return null;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return null;
+            }
+        });
+    }
+
+    private static List<Long> ids(List<ItemShortDto> items) {
+        return items.stream().map(ItemShortDto::getId).toList();
+    }
+}
@@ -7,19 +7,28 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemOwnerRow;
 import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSort;
+import ru.practicum.shareit.item.model.ItemStats;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemStatsRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -34,6 +43,10 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -43,6 +56,9 @@ class ItemServiceImplTest {
     @Autowired
     private final ItemService itemService;
 
+    @Autowired
+    private final CacheManager cacheManager;
+
     @MockBean
     private ItemRequestRepository itemRequestRepository;
 
@@ -58,16 +74,19 @@ class ItemServiceImplTest {
     @MockBean
     private CommentRepository commentRepository;
 
+    @MockBean
+    private ItemSearchIndex itemSearchIndex;
+
+    @MockBean
+    private ItemStatsRepository itemStatsRepository;
+
     User owner;
     User author;
     User requestor;
     Item item;
-    List<Item> items;
-    Booking prevBooking;
-    Booking nextBooking;
-    List<Booking> bookings;
     Comment comment;
     List<Comment> comments;
+    ItemStats itemStats;
     ItemDto itemOwnerDto;
     ItemDto itemDto;
     List<ItemDto> itemDtos;
@@ -77,6 +96,8 @@ class ItemServiceImplTest {
 
     @BeforeEach
     void bookingServiceTestSetUp() {
+        cacheManager.getCache(ItemServiceImpl.ITEMS_CACHE).clear();
+        cacheManager.getCache(ItemServiceImpl.SEARCH_CACHE).clear();
         Long ownerId = 1L;
         String ownerName = "test owner user";
         String ownerEmail = "owner@test.com";
@@ -110,28 +131,10 @@ class ItemServiceImplTest {
                 .request(itemRequest)
                 .owner(owner)
                 .build();
-        items = List.of(item);
-        LocalDateTime prevBookingStartDate = LocalDateTime.of(2024, 1, 1, 12, 30);
         LocalDateTime prevBookingEndDate = LocalDateTime.of(2024, 1, 1, 18, 30);
         LocalDateTime nextBookingStartDate = LocalDateTime.of(LocalDate.now(), LocalTime.of(0, 0)).plusDays(1);
-        LocalDateTime nextBookingEndDate = nextBookingStartDate.plusHours(10);
-        Long prevBookingId = 1000L;
-        Long nextBookingId = 2000L;
-        prevBooking = Booking.builder()
-                .id(prevBookingId)
-                .status(BookingStatus.APPROVED)
-                .start(prevBookingStartDate)
-                .end(prevBookingEndDate)
-                .item(item)
-                .build();
-        nextBooking = Booking.builder()
-                .id(nextBookingId)
-                .status(BookingStatus.APPROVED)
-                .start(nextBookingStartDate)
-                .end(nextBookingEndDate)
-                .item(item)
-                .build();
-        bookings = List.of(prevBooking, nextBooking);
+        item.setLastBookingEnd(prevBookingEndDate);
+        item.setNextBookingStart(nextBookingStartDate);
         Long commentId = 50L;
         String commentText = "test comment";
         comment = Comment.builder()
@@ -142,6 +145,7 @@ class ItemServiceImplTest {
                 .created(created)
                 .build();
         comments = List.of(comment);
+        itemStats = ItemStats.builder().itemId(itemId).commentCount(1L).ratingCount(0L).ratingSum(0L).averageRating(0.0).build();
         CommentDto commentDto = CommentDto.builder()
                 .id(commentId)
                 .text(commentText)
@@ -154,6 +158,7 @@ class ItemServiceImplTest {
                 .description(itemDescription)
                 .available(available)
                 .request(itemRequest.getId())
+                .commentCount(1)
                 .comments(List.of(commentDto
                 ))
                 .build();
@@ -165,6 +170,7 @@ class ItemServiceImplTest {
                 .request(itemDto.getRequest())
                 .lastBooking(prevBookingEndDate)
                 .nextBooking(nextBookingStartDate)
+                .commentCount(1)
                 .comments(itemDto.getComments())
                 .build();
         itemDtos = List.of(itemOwnerDto);
@@ -187,31 +193,53 @@ class ItemServiceImplTest {
     void findAllItemsByOwnerId_shouldReturnCollectionItemDto_whenUserFound() {
         when(userRepository.getUserById(owner.getId())).thenReturn(owner);
         when(userRepository.getUserById(author.getId())).thenReturn(author);
-        when(itemRepository.findAllByOwnerId(owner.getId())).thenReturn(items);
-        when(bookingRepository.findByItem_Owner_Id(owner.getId())).thenReturn(bookings);
-        when(commentRepository.findByItem_Owner_Id(owner.getId())).thenReturn(comments);
+        ItemOwnerRow row = mock(ItemOwnerRow.class);
+        when(row.getId()).thenReturn(item.getId());
+        when(row.getName()).thenReturn(item.getName());
+        when(row.getDescription()).thenReturn(item.getDescription());
+        when(row.getAvailable()).thenReturn(item.getAvailable());
+        when(row.getRequestId()).thenReturn(item.getRequest().getId());
+        when(row.getLastBooking()).thenReturn(item.getLastBookingEnd());
+        when(row.getNextBooking()).thenReturn(item.getNextBookingStart());
+        when(row.getCommentCount()).thenReturn(1L);
+        when(row.getCommentId()).thenReturn(comment.getId());
+        when(row.getCommentText()).thenReturn(comment.getText());
+        when(row.getCommentRating()).thenReturn(comment.getRating());
+        when(row.getCommentAuthorName()).thenReturn(author.getName());
+        when(row.getCommentCreated()).thenReturn(comment.getCreated());
+        when(itemRepository.findIdsByOwnerId(owner.getId(), PageRequest.of(2, 5, Sort.by("id")))).thenReturn(List.of(item.getId()));
+        when(itemRepository.findOwnerRows(owner.getId(), List.of(item.getId()))).thenReturn(List.of(row));
         List<ItemDto> expectedItemDtos = itemDtos;
 
-        Collection<ItemDto> actualItemDtos = itemService.findAllItemsByOwnerId(owner.getId());
+        Collection<ItemDto> actualItemDtos = itemService.findAllItemsByOwnerId(owner.getId(), 10, 5, ItemSort.DEFAULT);
 
         assertEquals(expectedItemDtos.size(), actualItemDtos.size());
         assertIterableEquals(expectedItemDtos, actualItemDtos);
     }
 
+    @Test
+    void findAllItemsByOwnerId_shouldNotLoadRows_whenPageIsEmpty() {
+        when(itemRepository.findIdsByOwnerId(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        Collection<ItemDto> actualItemDtos = itemService.findAllItemsByOwnerId(owner.getId(), 20, 10, ItemSort.DEFAULT);
+
+        assertEquals(0, actualItemDtos.size());
+        verify(itemRepository, never()).findOwnerRows(anyLong(), any());
+    }
+
     @Test
     void findAllItemsByOwnerId_shouldThrowNotFoundException_whenUserNotFound() {
         when(userRepository.getUserById(owner.getId())).thenThrow(NotFoundException.class);
 
-        assertThrows(NotFoundException.class, () -> itemService.findAllItemsByOwnerId(owner.getId()));
-        verify(itemRepository, never()).findAllByOwnerId(anyLong());
-        verify(commentRepository, never()).findByItem_Owner_Id(anyLong());
-        verify(bookingRepository, never()).findByItem_Owner_Id(anyLong());
+        assertThrows(NotFoundException.class, () -> itemService.findAllItemsByOwnerId(owner.getId(), 0, 10, ItemSort.DEFAULT));
+        verify(itemRepository, never()).findOwnerRows(anyLong(), any());
     }
 
     @Test
     void findItemById_shouldReturnItemDto_whenItemFound() {
         when(itemRepository.getItemById(item.getId())).thenReturn(item);
         when(commentRepository.findAllByItemId(item.getId())).thenReturn(comments);
+        when(itemStatsRepository.findById(item.getId())).thenReturn(Optional.of(itemStats));
         ItemDto expectedItemDto = itemDto;
 
         ItemDto actualItemDto = itemService.findItemById(item.getId());
@@ -225,6 +253,25 @@ class ItemServiceImplTest {
         assertIterableEquals(expectedItemDto.getComments(), actualItemDto.getComments());
     }
 
+    @Test
+    void findItemById_shouldServeRepeatedReadsFromCache_untilItemUpdated() {
+        when(itemRepository.getItemById(item.getId())).thenReturn(item);
+        when(commentRepository.findAllByItemId(item.getId())).thenReturn(comments);
+        when(itemStatsRepository.findById(item.getId())).thenReturn(Optional.of(itemStats));
+        when(userRepository.getUserById(owner.getId())).thenReturn(owner);
+        when(itemRepository.save(any(Item.class))).thenReturn(item);
+
+        itemService.findItemById(item.getId());
+        ItemDto cachedItemDto = itemService.findItemById(item.getId());
+        itemService.update(owner.getId(), item.getId(), ItemShortDto.builder().name("new item name").build());
+        ItemDto reloadedItemDto = itemService.findItemById(item.getId());
+
+        assertEquals(itemDto, cachedItemDto);
+        assertEquals("new item name", reloadedItemDto.getName());
+        verify(itemRepository, times(3)).getItemById(item.getId());
+        verify(commentRepository, times(2)).findAllByItemId(item.getId());
+    }
+
     @Test
     void findItemById_shouldThrowNotFoundException_whenItemNotFound() {
         when(itemRepository.getItemById(item.getId())).thenThrow(NotFoundException.class);
@@ -237,23 +284,79 @@ class ItemServiceImplTest {
     void searchItems_shouldReturnEmptyCollection_whenTextStringIsEmpty() {
         String text = "";
 
-        Collection<ItemShortDto> itemDtos = itemService.searchItems(text);
+        Collection<ItemShortDto> itemDtos = itemService.searchItems(text, null, 0, 10, ItemSort.DEFAULT);
 
         assertEquals(0, itemDtos.size());
-        verify(itemRepository, never()).findAll(any(BooleanExpression.class));
+        verify(itemRepository, never()).findAll(any(BooleanExpression.class), any(Pageable.class));
+        verify(itemRepository, never()).searchAvailable(anyString(), anyLong(), anyInt(), anyString());
     }
 
     @Test
     void searchItems_shouldReturnCollectionItemShort_whenTextStringIsNotEmpty() {
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(itemService), "fullTextSearch", false);
         String text = "some text";
         List<ItemShortDto> expectedItemShortDtos = List.of(itemShortDto);
-        when(itemRepository.findAll(any(BooleanExpression.class))).thenReturn(List.of(item));
+        when(itemRepository.findAll(any(BooleanExpression.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(item)));
 
-        Collection<ItemShortDto> actualItemDtos = itemService.searchItems(text);
+        Collection<ItemShortDto> actualItemDtos = itemService.searchItems(text, null, 10, 5, ItemSort.DEFAULT);
 
         assertEquals(expectedItemShortDtos.size(), actualItemDtos.size());
         assertIterableEquals(expectedItemShortDtos, actualItemDtos);
-        verify(itemRepository, times(1)).findAll(any(BooleanExpression.class));
+        verify(itemRepository, times(1)).findAll(any(BooleanExpression.class), eq(PageRequest.of(2, 5, Sort.by("id"))));
+    }
+
+    @Test
+    void searchItems_shouldRunRankedPrefixQuery_whenFullTextSearchEnabled() {
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(itemService), "fullTextSearch", true);
+        when(itemRepository.searchAvailable("some:* & text:*", 10L, 5, "DEFAULT")).thenReturn(List.of(item));
+
+        Collection<ItemShortDto> actualItemDtos = itemService.searchItems("some, text!", null, 10, 5, ItemSort.DEFAULT);
+
+        assertIterableEquals(List.of(itemShortDto), actualItemDtos);
+        verify(itemRepository, never()).findAll(any(BooleanExpression.class), any(Pageable.class));
+    }
+
+    @Test
+    void searchItems_shouldUseSearchIndexUncached_whenIndexReady() {
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search("some text", 10, 5)).thenReturn(List.of(itemShortDto));
+
+        Collection<ItemShortDto> actualItemDtos = itemService.searchItems("some text", null, 10, 5, ItemSort.DEFAULT);
+        itemService.searchItems(" Some TEXT", null, 10, 5, ItemSort.DEFAULT);
+
+        assertIterableEquals(List.of(itemShortDto), actualItemDtos);
+        verify(itemSearchIndex, times(2)).search("some text", 10, 5);
+        verify(itemRepository, never()).searchAvailable(anyString(), anyLong(), anyInt(), anyString());
+        verify(itemRepository, never()).findAll(any(BooleanExpression.class), any(Pageable.class));
+    }
+
+    @Test
+    void searchItems_shouldServeNormalisedRepeatsFromCache_untilSearchableFieldsChange() {
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(itemService), "fullTextSearch", true);
+        when(itemRepository.searchAvailable("some:* & text:*", 0L, 10, "DEFAULT")).thenReturn(List.of(item));
+        when(userRepository.getUserById(owner.getId())).thenReturn(owner);
+        when(itemRepository.getItemById(item.getId())).thenReturn(item);
+        when(itemRepository.save(any(Item.class))).thenReturn(item);
+
+        itemService.searchItems("some text", null, 0, 10, ItemSort.DEFAULT);
+        itemService.searchItems("  Some TEXT ", null, 5, 10, ItemSort.DEFAULT);
+        itemService.update(owner.getId(), item.getId(), ItemShortDto.builder().name(item.getName()).build());
+        itemService.searchItems("some text", null, 0, 10, ItemSort.DEFAULT);
+        verify(itemRepository, times(1)).searchAvailable("some:* & text:*", 0L, 10, "DEFAULT");
+
+        itemService.update(owner.getId(), item.getId(), ItemShortDto.builder().available(!item.getAvailable()).build());
+        itemService.searchItems("some text", null, 0, 10, ItemSort.DEFAULT);
+        verify(itemRepository, times(2)).searchAvailable("some:* & text:*", 0L, 10, "DEFAULT");
+    }
+
+    @Test
+    void searchItems_shouldReturnEmptyCollection_whenTextHasNoWords() {
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(itemService), "fullTextSearch", true);
+
+        Collection<ItemShortDto> itemDtos = itemService.searchItems("&!", null, 0, 10, ItemSort.DEFAULT);
+
+        assertEquals(0, itemDtos.size());
+        verify(itemRepository, never()).searchAvailable(anyString(), anyLong(), anyInt(), anyString());
     }
 
     @Test
@@ -273,6 +376,8 @@ class ItemServiceImplTest {
         assertEquals(expectedItemShortDto.getAvailable(), actualItemShortDto.getAvailable());
         assertEquals(expectedItemShortDto.getRequestId(), actualItemShortDto.getRequestId());
         verify(itemRepository, times(1)).save(any(Item.class));
+        verify(itemSearchIndex, times(1)).put(item);
+        verify(itemStatsRepository).createFor(item.getId());
     }
 
     @Test
@@ -409,7 +514,7 @@ class ItemServiceImplTest {
         when(itemRepository.getItemById(item.getId())).thenReturn(item);
         when(userRepository.getUserById(author.getId())).thenThrow(NotFoundException.class);
 
-        assertThrows(NotFoundException.class, () -> itemService.addComment(author.getId(), item.getId(), new CommentShortDto("text")));
+        assertThrows(NotFoundException.class, () -> itemService.addComment(author.getId(), item.getId(), new CommentShortDto("text", null)));
         verify(commentRepository, never()).save(any(Comment.class));
     }
 
@@ -418,7 +523,7 @@ class ItemServiceImplTest {
         when(userRepository.getUserById(owner.getId())).thenReturn(owner);
         when(itemRepository.getItemById(item.getId())).thenThrow(NotFoundException.class);
 
-        assertThrows(NotFoundException.class, () -> itemService.addComment(owner.getId(), item.getId(), new CommentShortDto("text")));
+        assertThrows(NotFoundException.class, () -> itemService.addComment(owner.getId(), item.getId(), new CommentShortDto("text", null)));
         verify(commentRepository, never()).save(any(Comment.class));
     }
 
@@ -428,7 +533,7 @@ class ItemServiceImplTest {
         when(itemRepository.getItemById(item.getId())).thenReturn(item);
         when(bookingRepository.existValidBooking(author.getId(), item.getId())).thenReturn(false);
 
-        assertThrows(BadRequestException.class, () -> itemService.addComment(author.getId(), item.getId(), new CommentShortDto("text")));
+        assertThrows(BadRequestException.class, () -> itemService.addComment(author.getId(), item.getId(), new CommentShortDto("text", null)));
         verify(commentRepository, never()).save(any(Comment.class));
     }
 
@@ -455,7 +560,7 @@ class ItemServiceImplTest {
                 .created(created)
                 .build();
 
-        CommentDto actualCommentDto = itemService.addComment(author.getId(), item.getId(), new CommentShortDto(commentText));
+        CommentDto actualCommentDto = itemService.addComment(author.getId(), item.getId(), new CommentShortDto(commentText, null));
 
         assertNotNull(actualCommentDto);
         assertEquals(expectedCommentDto, actualCommentDto);
@@ -463,5 +568,20 @@ class ItemServiceImplTest {
         assertEquals(expectedCommentDto.getAuthorName(), actualCommentDto.getAuthorName());
         assertEquals(expectedCommentDto.getCreated(), actualCommentDto.getCreated());
         verify(commentRepository, times(1)).save(any(Comment.class));
+        verify(itemStatsRepository).addComment(item.getId());
+    }
+
+    @Test
+    void addComment_shouldAddRatingToItemStats_whenCommentIsRated() {
+        when(userRepository.getUserById(author.getId())).thenReturn(author);
+        when(itemRepository.getItemById(item.getId())).thenReturn(item);
+        when(bookingRepository.existValidBooking(author.getId(), item.getId())).thenReturn(true);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CommentDto actualCommentDto = itemService.addComment(author.getId(), item.getId(), new CommentShortDto("text", 4));
+
+        assertEquals(4, actualCommentDto.getRating());
+        verify(itemStatsRepository).addRatedComment(item.getId(), 4);
+        verify(itemStatsRepository, never()).addComment(anyLong());
     }
 }
\ No newline at end of file
@@ -9,16 +9,34 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.item.dto.CommentShortDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
 import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.GeoCircle;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSort;
+import ru.practicum.shareit.item.model.ItemStats;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -33,12 +51,16 @@ class ItemServiceIntegrationTest {
 
     private final EntityManager em;
 
+    private final CacheManager cacheManager;
+
     User owner;
     Item item;
     ItemShortDto itemShortDto;
 
     @BeforeEach
     void setUp() {
+        // search results are keyed by a generation that moves on commit only, which these test transactions never reach
+        cacheManager.getCache(ItemServiceImpl.SEARCH_CACHE).clear();
         String ownerUserName = "test user owner";
         String ownerUserEmail = "owner@test.com";
         owner = User.builder()
@@ -66,7 +88,7 @@ class ItemServiceIntegrationTest {
         Collection<ItemDto> expectedItemDtos = List.of(expectedItemDto);
 
         itemService.create(owner.getId(), itemShortDto);
-        Collection<ItemDto> actualItemDtos = itemService.findAllItemsByOwnerId(owner.getId());
+        Collection<ItemDto> actualItemDtos = itemService.findAllItemsByOwnerId(owner.getId(), 0, 10, ItemSort.DEFAULT);
 
         assertThat(actualItemDtos, hasSize(expectedItemDtos.size()));
         for (ItemDto actualItemDto : actualItemDtos) {
@@ -80,8 +102,252 @@ class ItemServiceIntegrationTest {
         }
     }
 
+    @Test
+    void findAllItemsByOwnerId_shouldReturnCommentsAndCountPerItem() {
+        em.persist(item);
+        em.persist(ItemStats.builder().itemId(item.getId()).commentCount(2L).ratingCount(0L).ratingSum(0L).averageRating(0.0).build());
+        Item uncommentedItem = Item.builder().name("other item").description("other description").available(true).owner(owner).build();
+        em.persist(uncommentedItem);
+        User author = User.builder().name("author").email("author@test.com").build();
+        em.persist(author);
+        em.persist(Comment.builder().text("first").author(author).item(item).build());
+        em.persist(Comment.builder().text("second").author(author).item(item).build());
+
+        List<ItemDto> actualItemDtos = List.copyOf(itemService.findAllItemsByOwnerId(owner.getId(), 0, 10, ItemSort.DEFAULT));
+
+        assertThat(actualItemDtos, hasSize(2));
+        assertThat(actualItemDtos.get(0).getId(), equalTo(item.getId()));
+        assertThat(actualItemDtos.get(0).getCommentCount(), equalTo(2));
+        assertThat(actualItemDtos.get(0).getComments(), contains(
+                hasProperty("text", equalTo("first")),
+                hasProperty("text", equalTo("second"))));
+        assertThat(actualItemDtos.get(0).getComments(), everyItem(hasProperty("authorName", equalTo("author"))));
+        assertThat(actualItemDtos.get(1).getId(), equalTo(uncommentedItem.getId()));
+        assertThat(actualItemDtos.get(1).getCommentCount(), equalTo(0));
+        assertThat(actualItemDtos.get(1).getComments(), empty());
+    }
+
+    @Test
+    void findAllItemsByOwnerId_shouldReturnRequestedPageOnly() {
+        em.persist(item);
+        Item secondItem = Item.builder().name("second item").description("second description").available(true).owner(owner).build();
+        em.persist(secondItem);
+        Item thirdItem = Item.builder().name("third item").description("third description").available(true).owner(owner).build();
+        em.persist(thirdItem);
+        User author = User.builder().name("author").email("author@test.com").build();
+        em.persist(author);
+        em.persist(Comment.builder().text("first").author(author).item(item).build());
+        em.persist(Comment.builder().text("third").author(author).item(thirdItem).build());
+
+        List<ItemDto> actualItemDtos = List.copyOf(itemService.findAllItemsByOwnerId(owner.getId(), 2, 2, ItemSort.DEFAULT));
+
+        assertThat(actualItemDtos, hasSize(1));
+        assertThat(actualItemDtos.get(0).getId(), equalTo(thirdItem.getId()));
+        assertThat(actualItemDtos.get(0).getComments(), contains(hasProperty("text", equalTo("third"))));
+        assertThat(itemService.findAllItemsByOwnerId(owner.getId(), 4, 2, ItemSort.DEFAULT), empty());
+    }
+
+    @Test
+    void suggestItems_shouldListAvailableNamesStartingWithPrefix_whileIndexIsNotLoaded() {
+        em.persist(item);
+        em.persist(Item.builder().name("Test drill").description("drill").available(true).owner(owner).build());
+        em.persist(Item.builder().name("test saw").description("saw").available(false).owner(owner).build());
+        em.persist(Item.builder().name("other").description("test").available(true).owner(owner).build());
+
+        List<String> names = itemService.suggestItems(" TES", 10).stream().map(ItemShortDto::getName).toList();
+
+        assertThat(names, contains("Test drill", "test item"));
+        assertThat(itemService.suggestItems(" ", 10), empty());
+    }
+
+    @Test
+    void addComment_shouldCountCommentsAndRatings_andSortItemsByThem() {
+        Long drillId = itemService.create(owner.getId(), ItemShortDto.builder().name("drill").description("cordless").available(true).build()).getId();
+        Long pressId = itemService.create(owner.getId(), ItemShortDto.builder().name("drill press").description("bench").available(true).build()).getId();
+        User firstAuthor = User.builder().name("first author").email("first@test.com").build();
+        em.persist(firstAuthor);
+        User secondAuthor = User.builder().name("second author").email("second@test.com").build();
+        em.persist(secondAuthor);
+        LocalDateTime start = LocalDateTime.now().minusDays(2);
+        for (Booking booking : List.of(
+                Booking.builder().item(em.find(Item.class, drillId)).booker(firstAuthor).build(),
+                Booking.builder().item(em.find(Item.class, drillId)).booker(secondAuthor).build(),
+                Booking.builder().item(em.find(Item.class, pressId)).booker(firstAuthor).build())) {
+            booking.setStart(start);
+            booking.setEnd(start.plusDays(1));
+            booking.setStatus(BookingStatus.APPROVED);
+            em.persist(booking);
+        }
+
+        itemService.addComment(firstAuthor.getId(), drillId, new CommentShortDto("too heavy", 2));
+        itemService.addComment(secondAuthor.getId(), drillId, new CommentShortDto("fine", 4));
+        itemService.addComment(secondAuthor.getId(), drillId, new CommentShortDto("no rating", null));
+        itemService.addComment(firstAuthor.getId(), pressId, new CommentShortDto("great", 5));
+
+        ItemDto drill = itemService.findItemById(drillId);
+        assertThat(drill.getCommentCount(), equalTo(3));
+        assertThat(drill.getAverageRating(), equalTo(3.0));
+        assertThat(drill.getComments(), hasItem(hasProperty("rating", equalTo(4))));
+        assertThat(itemService.findAllItemsByOwnerId(owner.getId(), 0, 10, ItemSort.RATING).stream().map(ItemDto::getId).toList(),
+                contains(pressId, drillId));
+        assertThat(itemService.findAllItemsByOwnerId(owner.getId(), 0, 10, ItemSort.COMMENTS).stream().map(ItemDto::getId).toList(),
+                contains(drillId, pressId));
+        assertThat(itemService.searchItems("drill", null, 0, 10, ItemSort.RATING).stream().map(ItemShortDto::getId).toList(),
+                contains(pressId, drillId));
+        assertThat(itemService.searchItems("drill", null, 0, 10, ItemSort.DEFAULT).stream().map(ItemShortDto::getId).toList(),
+                contains(drillId, pressId));
+    }
+
+    @Test
+    void searchItems_shouldFindItemsWithinRadius_nearestFirst() {
+        Long drillId = createAt("drill", true, 55.7539, 37.6208);
+        Long pressId = createAt("drill press", true, 55.7700, 37.6000);
+        Long sawId = createAt("saw", true, 55.7600, 37.6300);
+        createAt("drill in box corner", true, 55.7958, 37.6873);
+        createAt("drill out of town", true, 55.9000, 37.6000);
+        createAt("unavailable drill", false, 55.7558, 37.6173);
+        itemService.create(owner.getId(), ItemShortDto.builder().name("drill nowhere").description("test").available(true).build());
+        GeoCircle near = new GeoCircle(55.7558, 37.6173, 5);
+
+        assertThat(itemService.searchItems(" Drill", near, 0, 10, ItemSort.DEFAULT).stream().map(ItemShortDto::getId).toList(),
+                contains(drillId, pressId));
+        assertThat(itemService.searchItems("", near, 0, 10, ItemSort.DEFAULT).stream().map(ItemShortDto::getId).toList(),
+                contains(drillId, sawId, pressId));
+        assertThat(itemService.searchItems("", near, 1, 1, ItemSort.DEFAULT).stream().map(ItemShortDto::getId).toList(),
+                contains(sawId));
+        assertThat(itemService.searchItems("", new GeoCircle(55.7558, 37.6173, 0.5), 0, 10, ItemSort.DEFAULT).stream()
+                .map(ItemShortDto::getId).toList(), contains(drillId));
+
+        itemService.update(owner.getId(), sawId, ItemShortDto.builder().latitude(55.9000).longitude(37.6000).build());
+        cacheManager.getCache(ItemServiceImpl.SEARCH_CACHE).clear();
+
+        assertThat(itemService.searchItems("", near, 0, 10, ItemSort.DEFAULT).stream().map(ItemShortDto::getId).toList(),
+                contains(drillId, pressId));
+        Assertions.assertThrows(BadRequestException.class,
+                () -> itemService.update(owner.getId(), sawId, ItemShortDto.builder().latitude(55.7600).build()));
+    }
+
+    @Test
+    void create_shouldMoveSearchGenerationOnlyOnCommit() {
+        AtomicLong searchGeneration = (AtomicLong) ReflectionTestUtils.getField(
+                (Object) AopTestUtils.getTargetObject(itemService), "searchGeneration");
+        long generation = searchGeneration.get();
+
+        itemService.create(owner.getId(), itemShortDto);
+
+        assertThat(searchGeneration.get(), equalTo(generation));
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+        assertThat(searchGeneration.get(), equalTo(generation));
+    }
+
     @Test
     void findItemById_shouldThrowNotFoundException_whenUserItemNotExist() {
         Assertions.assertThrows(NotFoundException.class, () -> itemService.findItemById(0L));
     }
+
+    @Test
+    void findAvailability_shouldReturnMergedBusyAndFreeSlots() {
+        em.persist(item);
+        User booker = User.builder().name("booker").email("booker@test.com").build();
+        em.persist(booker);
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        persistBooking(booker, from.plusHours(2), from.plusHours(4), BookingStatus.APPROVED);
+        persistBooking(booker, from.plusHours(3), from.plusHours(5), BookingStatus.APPROVED);
+        persistBooking(booker, from.plusHours(6), from.plusHours(7), BookingStatus.REJECTED);
+        persistBooking(booker, from.plusHours(8), from.plusHours(30), BookingStatus.APPROVED);
+        List<AvailabilitySlotDto> slots = new ArrayList<>();
+
+        itemService.checkAvailabilityPeriod(item.getId(), from, from.plusHours(10));
+        itemService.findAvailability(item.getId(), from, from.plusHours(10), slots::add);
+
+        assertThat(slots.stream().map(AvailabilitySlotDto::getStatus).toList(), contains("FREE", "BUSY", "FREE", "BUSY"));
+        assertThat(slots.get(1).getStart(), equalTo(from.plusHours(2)));
+        assertThat(slots.get(1).getEnd(), equalTo(from.plusHours(5)));
+        assertThat(slots.get(3).getEnd(), equalTo(from.plusHours(10)));
+    }
+
+    @Test
+    void checkAvailabilityPeriod_shouldRejectUnknownItemAndEmptyPeriod() {
+        em.persist(item);
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        Assertions.assertThrows(NotFoundException.class,
+                () -> itemService.checkAvailabilityPeriod(item.getId() + 1, from, from.plusDays(1)));
+        Assertions.assertThrows(BadRequestException.class,
+                () -> itemService.checkAvailabilityPeriod(item.getId(), from, from));
+    }
+
+    @Test
+    void importItems_shouldInsertRowsInBatches_andReportUnknownRequests() {
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(itemService), "importBatchSize", 2);
+        User requestor = User.builder().name("requestor").email("requestor@test.com").build();
+        em.persist(requestor);
+        ItemRequest itemRequest = ItemRequest.builder().description("need a drill").requestor(requestor).created(LocalDateTime.now()).build();
+        em.persist(itemRequest);
+        List<ItemImportRowDto> rows = List.of(
+                ItemImportRowDto.builder().row(1L).name("drill").description("cordless drill").available(true).requestId(itemRequest.getId()).build(),
+                ItemImportRowDto.builder().row(2L).name("saw").description("hand saw").available(false).requestId(-1L).build(),
+                ItemImportRowDto.builder().row(3L).name("ladder").description("three steps").available(true).build());
+
+        ItemImportResultDto result = itemService.importItems(owner.getId(), rows.iterator());
+
+        assertThat(result.getImported(), equalTo(2));
+        assertThat(result.getErrors(), contains(hasProperty("row", equalTo(2L))));
+        List<Item> items = em.createQuery("select i from Item as i where i.owner.id = :ownerId order by i.id", Item.class)
+                .setParameter("ownerId", owner.getId())
+                .getResultList();
+        assertThat(items.stream().map(Item::getName).toList(), contains("drill", "ladder"));
+        assertThat(items.get(0).getRequest().getId(), equalTo(itemRequest.getId()));
+        assertThat(items.get(1).getRequest(), nullValue());
+    }
+
+    @Test
+    void importItems_shouldKeepCoordinates_andReportIncompleteLocations() {
+        List<ItemImportRowDto> rows = List.of(
+                ItemImportRowDto.builder().row(1L).name("drill").description("cordless drill").available(true)
+                        .latitude(55.7539).longitude(37.6208).build(),
+                ItemImportRowDto.builder().row(2L).name("saw").description("hand saw").available(true)
+                        .latitude(55.7600).build(),
+                ItemImportRowDto.builder().row(3L).name("ladder").description("three steps").available(true).build());
+
+        ItemImportResultDto result = itemService.importItems(owner.getId(), rows.iterator());
+
+        assertThat(result.getImported(), equalTo(2));
+        assertThat(result.getErrors(), contains(allOf(hasProperty("row", equalTo(2L)),
+                hasProperty("error", equalTo(ItemServiceImpl.INCOMPLETE_LOCATION_MSG)))));
+        Item drill = em.createQuery("select i from Item as i where i.owner.id = :ownerId and i.name = 'drill'", Item.class)
+                .setParameter("ownerId", owner.getId())
+                .getSingleResult();
+        assertThat(drill.getGeoCell(), equalTo(GeoHash.encode(55.7539, 37.6208)));
+        assertThat(itemService.searchItems("", new GeoCircle(55.7558, 37.6173, 5), 0, 10, ItemSort.DEFAULT).stream()
+                .map(ItemShortDto::getId).toList(), contains(drill.getId()));
+    }
+
+    @Test
+    void exportItems_shouldStreamOwnerItemsInIdOrder() {
+        em.persist(item);
+        Item secondItem = Item.builder().name("second item").description("second description").available(false).owner(owner).build();
+        em.persist(secondItem);
+        User otherOwner = User.builder().name("other owner").email("other@test.com").build();
+        em.persist(otherOwner);
+        em.persist(Item.builder().name("other item").description("other description").available(true).owner(otherOwner).build());
+        List<ItemShortDto> exported = new ArrayList<>();
+
+        itemService.checkOwnerExists(owner.getId());
+        itemService.exportItems(owner.getId(), exported::add);
+
+        assertThat(exported.stream().map(ItemShortDto::getId).toList(), contains(item.getId(), secondItem.getId()));
+        assertThat(exported.get(1).getAvailable(), equalTo(false));
+        Assertions.assertThrows(NotFoundException.class, () -> itemService.checkOwnerExists(0L));
+    }
+
+    private Long createAt(String name, Boolean available, double latitude, double longitude) {
+        return itemService.create(owner.getId(), ItemShortDto.builder().name(name).description("test").available(available)
+                .latitude(latitude).longitude(longitude).build()).getId();
+    }
+
+    private void persistBooking(User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        em.persist(Booking.builder().item(item).booker(booker).start(start).end(end).status(status).build());
+    }
 }